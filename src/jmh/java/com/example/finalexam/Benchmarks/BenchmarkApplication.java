@@ -0,0 +1,46 @@
+package com.example.finalexam.Benchmarks;
+
+import com.example.finalexam.FinalExamApplication;
+import com.example.finalexam.Services.SaleImportService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Starts the application without a web server for benchmarks, on its own in-memory H2 database.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application and seeds it with deterministic sales through the bulk import.
+     *
+     * @param database the name of the in-memory database
+     * @param rows the number of sales to seed
+     * @param properties extra application properties
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext start(String database, int rows, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FinalExamApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.devtools.restart.enabled=false",
+                        "spring.thymeleaf.cache=true",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+        try {
+            byte[] csv = new SalesDataGenerator(SalesDataGenerator.SEED, true).csv(rows);
+            context.getBean(SaleImportService.class).importCsv(new ByteArrayInputStream(csv));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return context;
+    }
+}
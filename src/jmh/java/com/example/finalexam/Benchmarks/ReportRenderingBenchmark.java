@@ -0,0 +1,75 @@
+package com.example.finalexam.Benchmarks;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SalePage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Thymeleaf rendering of salesReport.html for reports of growing size.
+ * Rows are read once from a seeded in-memory H2 database; only rendering is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReportRenderingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int rows; // Rows rendered in the report
+
+    private ConfigurableApplicationContext context; // Running application
+    private ITemplateEngine templateEngine; // The application's configured Thymeleaf engine
+    private WebContext webContext; // Template variables plus a mock request for link building
+
+    /**
+     * Starts the application, seeds it and loads the rows to render.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("bench-render", rows);
+        templateEngine = context.getBean(ITemplateEngine.class);
+        List<Sale> sales = context.getBean(SaleRepository.class)
+                .findAll(PageRequest.of(0, rows, Sort.by("id"))).getContent();
+        SalePage page = new SalePage(sales, SalePage.SORT_BY_ID, true, rows, false);
+
+        MockServletContext servletContext = new MockServletContext();
+        JakartaServletWebApplication application = JakartaServletWebApplication.buildApplication(servletContext);
+        webContext = new WebContext(application.buildExchange(new MockHttpServletRequest(servletContext),
+                new MockHttpServletResponse()), Locale.US, Map.of("filter", new SaleFilter(), "page", page, "sales", sales));
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Renders the report into a discarding writer.
+     */
+    @Benchmark
+    public void renderSalesReport() {
+        templateEngine.process("salesReport", webContext, Writer.nullWriter());
+    }
+}
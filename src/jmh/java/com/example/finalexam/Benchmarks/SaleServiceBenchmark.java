@@ -0,0 +1,119 @@
+package com.example.finalexam.Benchmarks;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.ImportReport;
+import com.example.finalexam.Services.SaleImportService;
+import com.example.finalexam.Services.SalePage;
+import com.example.finalexam.Services.SaleService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the SaleService write, lookup and report paths against a seeded in-memory H2 database.
+ * Writes are reported per sale, so the single and batched variants compare directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaleServiceBenchmark {
+
+    private static final int BATCH = 50; // Sales per batched write
+
+    @Param({"10000"})
+    private int rows; // Sales seeded before the run
+
+    private ConfigurableApplicationContext context; // Running application
+    private SaleService saleService; // Service under test
+    private SaleRepository saleRepository; // Repository, for uncached lookups
+    private SaleImportService saleImportService; // Batched write path
+    private SalesDataGenerator generator; // Source of new sales for the write benchmarks
+    private byte[] batchCsv; // One batch of new sales as CSV
+    private final SplittableRandom random = new SplittableRandom(SalesDataGenerator.SEED); // Picks IDs to read
+
+    /**
+     * Starts and seeds the application.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("bench-service", rows, "sales.import.batch-size=" + BATCH);
+        saleService = context.getBean(SaleService.class);
+        saleRepository = context.getBean(SaleRepository.class);
+        saleImportService = context.getBean(SaleImportService.class);
+        generator = new SalesDataGenerator(SalesDataGenerator.SEED + 1, false); // No codes: rows may repeat
+        batchCsv = generator.csv(BATCH);
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Saves one sale in its own transaction.
+     */
+    @Benchmark
+    public Sale saveSaleSingle() {
+        return saleService.saveSale(generator.next());
+    }
+
+    /**
+     * Saves a batch of sales in one transaction through the JDBC-batched import path.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ImportReport saveSaleBatched() throws IOException {
+        return saleImportService.importCsv(new ByteArrayInputStream(batchCsv));
+    }
+
+    /**
+     * Looks up a random seeded sale through the service, which serves repeats from its cache.
+     */
+    @Benchmark
+    public Sale getSaleById() {
+        return saleService.getSaleById(randomId());
+    }
+
+    /**
+     * Looks up a random seeded sale straight from the database.
+     */
+    @Benchmark
+    public Sale getSaleByIdUncached() {
+        return saleRepository.findById(randomId()).orElse(null);
+    }
+
+    /**
+     * Loads the whole table, as the report did before it was paged.
+     */
+    @Benchmark
+    public List<Sale> fullReport() {
+        return saleService.getAllSales();
+    }
+
+    /**
+     * Loads one report page at a random position; most positions miss the page cache.
+     */
+    @Benchmark
+    public SalePage pagedReport() {
+        return saleService.getSalesPage(SalePage.SORT_BY_ID, true, randomId(), null, SaleService.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Picks the ID of a seeded sale (IDs start at 1 on a fresh database).
+     */
+    private long randomId() {
+        return 1 + random.nextInt(rows);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.finalexam.Benchmarks;
+
+import com.example.finalexam.Entities.Sale;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generator of sales for benchmarks.
+ * The same seed always yields the same rows, so results can be compared between releases.
+ */
+public final class SalesDataGenerator {
+
+    public static final long SEED = 20240801L; // Seed used by every benchmark
+
+    private static final String[] NAMES = {"John Doe", "Jessica Lam", "Ann Lee", "Raj Patel", "Maria Garcia",
+            "Wei Chen", "Omar Haddad", "Sofia Rossi"}; // Salesmen
+    private static final String[] ITEM_TYPES = {"Refrigerator", "Music System", "Washing Machine", "Television",
+            "Microwave"}; // Item types
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1); // Earliest transaction date
+
+    private final Random random; // Source of all generated values
+    private final boolean withCodes; // Whether rows get a transaction code
+    private long index; // Index of the next generated row
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed the random seed
+     * @param withCodes whether to fill in transaction codes (unique per generator)
+     */
+    public SalesDataGenerator(long seed, boolean withCodes) {
+        this.random = new Random(seed);
+        this.withCodes = withCodes;
+    }
+
+    /**
+     * Generates the next sale.
+     *
+     * @return a new unsaved sale
+     */
+    public Sale next() {
+        Sale sale = new Sale();
+        sale.setName(NAMES[random.nextInt(NAMES.length)]);
+        sale.setItemType(ITEM_TYPES[random.nextInt(ITEM_TYPES.length)]);
+        sale.setSalesAmountCents(100 + random.nextInt(500_000));
+        sale.setTransactionCode(withCodes ? "GEN" + index : null);
+        sale.setTransactionDate(FIRST_DAY.plusDays(random.nextInt(366)));
+        index++;
+        return sale;
+    }
+
+    /**
+     * Generates several sales.
+     *
+     * @param count the number of sales
+     * @return the new unsaved sales
+     */
+    public List<Sale> next(int count) {
+        List<Sale> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sales.add(next());
+        }
+        return sales;
+    }
+
+    /**
+     * Generates several sales as a CSV document accepted by the sales import.
+     *
+     * @param count the number of rows
+     * @return the UTF-8 encoded CSV, with header
+     */
+    public byte[] csv(int count) {
+        StringBuilder csv = new StringBuilder("name,itemType,salesAmount,transactionCode,transactionDate\n");
+        for (Sale sale : next(count)) {
+            csv.append(sale.getName()).append(',')
+                    .append(sale.getItemType()).append(',')
+                    .append(sale.getSalesAmount().toPlainString()).append(',')
+                    .append(sale.getTransactionCode() == null ? "" : sale.getTransactionCode()).append(',')
+                    .append(sale.getTransactionDate()).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.finalexam.Config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configures the in-process caches used by SaleService.
+ * Each cache is a bounded Caffeine cache with its own size and expiry, records hit/miss statistics
+ * (published by Actuator as the cache.gets metric), and is transaction-aware so evictions happen
+ * only once the write that caused them has committed.
+ * The cache advice runs outside the transaction advice, so a cache hit opens no transaction and takes no connection.
+ * With a read replica (sales.replica.url) the caches are also kept from serving rows the replica had not caught up with
+ * (see ReplicaLagCacheManager).
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String SALES_CACHE = "sales"; // Single sales by ID, read by the edit page and the REST API
+    public static final String SALE_PAGES_CACHE = "salePages"; // Report pages by paging parameters
+
+    /**
+     * Builds the cache manager holding the sales and report page caches.
+     *
+     * @param salesSpec the Caffeine spec of the single-sale cache
+     * @param salePagesSpec the Caffeine spec of the report page cache
+     * @param replicaUrl the JDBC URL of the read replica, empty without one
+     * @param readYourWritesMillis how long a client's reads stay on the primary after it wrote
+     * @return the cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${sales.cache.sales-spec}") String salesSpec,
+                                     @Value("${sales.cache.sale-pages-spec}") String salePagesSpec,
+                                     @Value("${sales.replica.url:}") String replicaUrl,
+                                     @Value("${sales.replica.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(SALES_CACHE, Caffeine.from(salesSpec).recordStats().build());
+        cacheManager.registerCustomCache(SALE_PAGES_CACHE, Caffeine.from(salePagesSpec).recordStats().build());
+        cacheManager.setAllowNullValues(false);
+        CacheManager caches = replicaUrl.isEmpty() ? cacheManager : new ReplicaLagCacheManager(cacheManager, readYourWritesMillis);
+        return new TransactionAwareCacheManagerProxy(caches); // Defers evictions to after commit
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.finalexam.Config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures application metrics beyond what Actuator binds on its own.
+ * Enables the {@code @Timed} annotation, used to time every SaleService method.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Registers the aspect that turns {@code @Timed} methods and classes into timers.
+     *
+     * @param meterRegistry the registry receiving the timers
+     * @return the timing aspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.finalexam.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits database traffic between the primary and a read replica when sales.replica.url is set
+ * (see ReplicaRoutingDataSource for which transactions go where). Without it the application keeps
+ * Spring Boot's single data source.
+ * Each database gets its own connection pool, named after it in the hikaricp.connections metrics:
+ * the primary is configured by spring.datasource.*, the replica by sales.replica.*.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sales.replica", name = "url")
+public class ReplicaConfig {
+
+    /**
+     * Builds the connection pool of the primary database.
+     *
+     * @param properties the spring.datasource properties
+     * @return the primary pool, further configured by spring.datasource.hikari.*
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    /**
+     * Builds the connection pool of the read replica.
+     *
+     * @param url the JDBC URL of the replica
+     * @param username the replica user, by default the primary's
+     * @param password the replica password, by default the primary's
+     * @return the replica pool, further configured by sales.replica.hikari.*
+     */
+    @Bean
+    @ConfigurationProperties("sales.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${sales.replica.url}") String url,
+                                              @Value("${sales.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${sales.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.REPLICA);
+        return dataSource;
+    }
+
+    /**
+     * Builds the data source used by JPA, Flyway and everything else: the routing between both pools.
+     *
+     * @param primary the primary pool
+     * @param replica the replica pool
+     * @param readYourWritesMillis how long a client's reads stay on the primary after it wrote
+     * @return the routing data source, fetching its connection only when the first statement runs
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${sales.replica.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, readYourWritesMillis);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.finalexam.Config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the sale caches consistent with a lagging read replica (see ReplicaRoutingDataSource).
+ * A cache miss right after an eviction may read the replica before it has the write, and cache the old row
+ * for every client. So each eviction is repeated once the replica should have caught up (read-your-writes-ms
+ * later), and a request whose reads are pinned to the primary does not read from the caches at all: a cache hit
+ * bypasses the routing, and could hand a writer its own write undone. What such a request reads from the
+ * primary is still cached.
+ * CacheConfig puts the transaction-aware proxy in front of this manager, so the repeat is timed from the commit.
+ */
+public class ReplicaLagCacheManager implements CacheManager {
+
+    private final CacheManager target; // Caches being decorated
+    private final Executor delayed; // Runs the repeated evictions once the replica should have caught up
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>(); // Decorated caches by name
+
+    /**
+     * Decorates the caches of a cache manager.
+     *
+     * @param target the cache manager to decorate
+     * @param readYourWritesMillis how long after an eviction to repeat it
+     */
+    public ReplicaLagCacheManager(CacheManager target, long readYourWritesMillis) {
+        this.target = target;
+        this.delayed = CompletableFuture.delayedExecutor(readYourWritesMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the decorated cache with the given name.
+     *
+     * @param name the cache name
+     * @return the cache, or null if the target has no such cache
+     */
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            Cache targetCache = target.getCache(name);
+            if (targetCache == null) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name, key -> new ReplicaLagCache(targetCache));
+        }
+        return cache;
+    }
+
+    /**
+     * Gets the names of the target's caches.
+     *
+     * @return the cache names
+     */
+    @Override
+    public Collection<String> getCacheNames() {
+        return target.getCacheNames();
+    }
+
+    /**
+     * A cache that misses for requests pinned to the primary and repeats its evictions after the replica lag.
+     */
+    private class ReplicaLagCache implements Cache {
+
+        private final Cache target; // Cache being decorated
+
+        /**
+         * Decorates a cache.
+         */
+        ReplicaLagCache(Cache target) {
+            this.target = target;
+        }
+
+        /**
+         * Gets the name of the target cache.
+         */
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        /**
+         * Gets the native cache of the target.
+         */
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        /**
+         * Looks up a value, missing for requests pinned to the primary.
+         */
+        @Override
+        public ValueWrapper get(Object key) {
+            return ReplicaRoutingDataSource.readsOwnWrites() ? null : target.get(key);
+        }
+
+        /**
+         * Looks up a value of a type, missing for requests pinned to the primary.
+         */
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return ReplicaRoutingDataSource.readsOwnWrites() ? null : target.get(key, type);
+        }
+
+        /**
+         * Looks up a value or loads and caches it; requests pinned to the primary always load it.
+         */
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            if (!ReplicaRoutingDataSource.readsOwnWrites()) {
+                return target.get(key, valueLoader);
+            }
+            try {
+                T value = valueLoader.call();
+                target.put(key, value);
+                return value;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+
+        /**
+         * Caches a value.
+         */
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, value);
+        }
+
+        /**
+         * Evicts a key now and again after the replica lag.
+         */
+        @Override
+        public void evict(Object key) {
+            target.evict(key);
+            delayed.execute(() -> target.evict(key));
+        }
+
+        /**
+         * Evicts a key now and again after the replica lag.
+         */
+        @Override
+        public boolean evictIfPresent(Object key) {
+            delayed.execute(() -> target.evict(key));
+            return target.evictIfPresent(key);
+        }
+
+        /**
+         * Clears the cache now and again after the replica lag.
+         */
+        @Override
+        public void clear() {
+            target.clear();
+            delayed.execute(target::clear);
+        }
+
+        /**
+         * Clears the cache now and again after the replica lag.
+         */
+        @Override
+        public boolean invalidate() {
+            delayed.execute(target::clear);
+            return target.invalidate();
+        }
+    }
+}
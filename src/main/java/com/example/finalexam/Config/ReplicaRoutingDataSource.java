@@ -0,0 +1,102 @@
+package com.example.finalexam.Config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes each transaction's connection to the primary database or to a read replica.
+ * Read-only transactions (report pages, lookups, exports) read from the replica; read-write transactions,
+ * and statements run outside a transaction, use the primary.
+ * Read-your-writes: a request that wrote reads from the primary for the rest of the request, and its client
+ * is given a cookie that keeps the client's reads on the primary for a while, long enough for the replica to
+ * catch up. Other clients may see a change only once it has reached the replica.
+ * The connection is chosen when the first statement runs, which is why ReplicaConfig wraps this data source
+ * in a LazyConnectionDataSourceProxy: by then the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary"; // Lookup key and pool name of the primary database
+    public static final String REPLICA = "replica"; // Lookup key and pool name of the read replica
+    public static final String PRIMARY_UNTIL_COOKIE = "sales-primary-until"; // Until when (epoch ms) a client reads from the primary
+    private static final String WROTE_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".wrote"; // Set on requests that wrote
+
+    private final long readYourWritesMillis; // How long a client's reads stay on the primary after it wrote
+
+    /**
+     * Creates a routing data source over a primary database and its replica.
+     *
+     * @param primary the primary database
+     * @param replica the read replica
+     * @param readYourWritesMillis how long a client's reads stay on the primary after it wrote
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long readYourWritesMillis) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    /**
+     * Picks the replica for read-only transactions of clients that have not written recently, the primary otherwise.
+     * A read-write transaction marks its request as having written.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markWritten();
+            return PRIMARY;
+        }
+        return readsOwnWrites() ? PRIMARY : REPLICA;
+    }
+
+    /**
+     * Records that the current request wrote, and sets the cookie that pins its client to the primary.
+     * Outside a request (scheduled jobs, imports in the background) there is no client to pin.
+     */
+    private void markWritten() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes request)
+                || request.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        request.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = request.getResponse();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(PRIMARY_UNTIL_COOKIE, Long.toString(System.currentTimeMillis() + readYourWritesMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (readYourWritesMillis + 999) / 1000));
+            response.addCookie(cookie);
+        }
+    }
+
+    /**
+     * Tells whether the current request, or its client shortly before, wrote, so its reads go to the primary.
+     *
+     * @return true for a request that wrote or carries an unexpired cookie, false otherwise and outside requests
+     */
+    public static boolean readsOwnWrites() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes request)) {
+            return false;
+        }
+        if (request.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        Cookie cookie = WebUtils.getCookie(request.getRequest(), PRIMARY_UNTIL_COOKIE);
+        try {
+            return cookie != null && Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false; // Not a cookie this class set
+        }
+    }
+}
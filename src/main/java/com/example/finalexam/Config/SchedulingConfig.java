@@ -0,0 +1,13 @@
+package com.example.finalexam.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs, such as the nightly archival of closed sales periods.
+ * A job is switched off by setting its cron property to "-".
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,27 @@
+package com.example.finalexam.Config;
+
+import com.example.finalexam.Services.SaleWriteBehind;
+import com.example.finalexam.Services.SalesRollup;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps the beans whose work must happen at startup eager when lazy initialization is on
+ * (spring.main.lazy-initialization, set by the prod profile). Beans with {@code @Scheduled}
+ * methods are already kept eager by Spring Boot.
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Excludes the sales rollup, which loads its totals before the server accepts requests,
+     * and the write-behind queue, which stores journaled sales left over from a crash, from lazy initialization.
+     *
+     * @return the filter naming the eager bean types
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(SalesRollup.class, SaleWriteBehind.class);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.finalexam.Entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A sale of a closed period, moved out of the Sale table by the archival job.
+ * The archive is the cold half of the sales data: rows keep their ID, transaction code and
+ * version, so a sale moved back for an update carries on from the version its clients last saw
+ * (archived sales are never updated in place), and are written in transaction date order. Hibernate treats the entity as read-only, so loading
+ * archived rows takes no dirty-checking snapshots. Only the indexes the report needs are kept.
+ */
+@Entity
+@Immutable
+@Table(name = "archived_sale", indexes = {
+        @Index(name = "ux_archived_sale_transaction_code", columnList = "transactionCode", unique = true),
+        @Index(name = "ix_archived_sale_date_id", columnList = "transactionDate, id"),
+        @Index(name = "ix_archived_sale_name_date_id", columnList = "name, transactionDate, id"),
+        @Index(name = "ix_archived_sale_item_type_date_id", columnList = "itemType, transactionDate, id")
+})
+public class ArchivedSale {
+
+    @Id
+    private Long id; // ID the sale had in the Sale table
+
+    private String name; // Name of the salesman
+    private String itemType; // Type of item sold
+    private long salesAmountCents; // Amount of the sale in minor units (cents) of its currency
+    @Column(length = 3)
+    private String currency; // ISO 4217 currency code of the amount
+    private String transactionCode; // Unique code for the transaction
+    private LocalDate transactionDate; // Date when the transaction occurred
+    private Long version; // Version the sale had when it was archived; null for sales archived before versions were kept
+    private Instant updatedAt; // When the sale was last changed before it was archived
+
+    /**
+     * Copies the archived sale into a detached Sale, so callers see one kind of sale
+     * regardless of the table it was read from. Sales archived without a version report version 0.
+     *
+     * @return a new Sale with the archived values
+     */
+    public Sale toSale() {
+        Sale sale = new Sale();
+        sale.setId(id);
+        sale.setName(name);
+        sale.setItemType(itemType);
+        sale.setCurrency(currency);
+        sale.setSalesAmountCents(salesAmountCents);
+        sale.setTransactionCode(transactionCode);
+        sale.setTransactionDate(transactionDate);
+        sale.setVersion(version == null ? 0L : version);
+        sale.setUpdatedAt(updatedAt);
+        return sale;
+    }
+
+    /**
+     * Gets the unique identifier for the sale.
+     * @return the ID of the sale
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the salesman.
+     * @return the name of the salesman
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type of item sold.
+     * @return the item type
+     */
+    public String getItemType() {
+        return itemType;
+    }
+
+    /**
+     * Gets the sales amount in minor units of its currency.
+     * @return the sales amount in cents
+     */
+    public long getSalesAmountCents() {
+        return salesAmountCents;
+    }
+
+    /**
+     * Gets the currency of the amount.
+     * @return the ISO 4217 currency code
+     */
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Gets the transaction code.
+     * @return the transaction code
+     */
+    public String getTransactionCode() {
+        return transactionCode;
+    }
+
+    /**
+     * Gets the transaction date.
+     * @return the transaction date
+     */
+    public LocalDate getTransactionDate() {
+        return transactionDate;
+    }
+
+    /**
+     * Gets the version the sale had when it was archived.
+     * @return the version, or null for sales archived before versions were kept
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets when the sale was last changed before it was archived.
+     * @return the modification time
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
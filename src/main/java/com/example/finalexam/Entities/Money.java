@@ -0,0 +1,56 @@
+package com.example.finalexam.Entities;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * Conversions between decimal amounts and the exact minor units (cents) sales are stored in.
+ * Amounts are kept as a long count of the currency's smallest unit, so sums never round and
+ * aggregating them needs no BigDecimal or boxed values; decimals only appear at the edges
+ * (forms, JSON, CSV and report rendering).
+ */
+public final class Money {
+
+    public static final String DEFAULT_CURRENCY = "USD"; // ISO 4217 currency of every sale
+
+    private Money() {
+    }
+
+    /**
+     * Gets the number of decimal places of a currency, e.g. 2 for USD and 0 for JPY.
+     *
+     * @param currency the ISO 4217 currency code
+     * @return the number of minor-unit digits
+     * @throws IllegalArgumentException if the code is not a known currency
+     */
+    public static int fractionDigits(String currency) {
+        return Math.max(0, Currency.getInstance(currency).getDefaultFractionDigits());
+    }
+
+    /**
+     * Converts a decimal amount to minor units, exactly.
+     *
+     * @param amount the amount, e.g. 12.50
+     * @param currency the ISO 4217 currency code
+     * @return the amount in minor units, e.g. 1250
+     * @throws IllegalArgumentException if the amount has more decimal places than the currency allows
+     */
+    public static long toMinorUnits(BigDecimal amount, String currency) {
+        try {
+            return amount.movePointRight(fractionDigits(currency)).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(amount + " is not a whole number of " + currency + " minor units", e);
+        }
+    }
+
+    /**
+     * Converts minor units to a decimal amount with the currency's number of decimal places.
+     *
+     * @param minorUnits the amount in minor units, e.g. 1250
+     * @param currency the ISO 4217 currency code
+     * @return the decimal amount, e.g. 12.50
+     */
+    public static BigDecimal fromMinorUnits(long minorUnits, String currency) {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+}
@@ -1,28 +1,88 @@
 package com.example.finalexam.Entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.DynamicUpdate;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 
 /**
  * Represents a Sale entity in the system.
  * Maps to a database table where sales records are stored.
+ * The indexes back the report filters and sort orders; each ends with the ID so keyset pages
+ * can seek and read in index order.
+ * The amount is stored exactly, as a whole number of minor units (cents) of the sale's currency;
+ * salesAmount is its decimal view for forms, JSON and reports.
+ * Updates are optimistic: they check and bump the version instead of locking the row, and only
+ * write the columns that changed.
  */
 @Entity
+@DynamicUpdate
+@Table(indexes = {
+        @Index(name = "ux_sale_transaction_code", columnList = "transactionCode", unique = true),
+        @Index(name = "ix_sale_date_id", columnList = "transactionDate, id"),
+        @Index(name = "ix_sale_name_date_id", columnList = "name, transactionDate, id"),
+        @Index(name = "ix_sale_item_type_date_id", columnList = "itemType, transactionDate, id"),
+        @Index(name = "ix_sale_amount", columnList = "salesAmountCents")
+})
 public class Sale {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_seq")
+    @SequenceGenerator(name = "sale_seq", sequenceName = "sale_seq", allocationSize = 50) // Pooled IDs allow JDBC insert batching
     private Long id; // Unique identifier for each sale record
 
     private String name; // Name of the salesman
     private String itemType; // Type of item sold (e.g., Washing Machine, Refrigerator, Music System)
-    private double salesAmount; // Amount of the sale
+    private long salesAmountCents; // Amount of the sale in minor units (cents) of its currency
+    @Column(length = 3)
+    private String currency = Money.DEFAULT_CURRENCY; // ISO 4217 currency code of the amount
     private String transactionCode; // Unique code for the transaction
     private LocalDate transactionDate; // Date when the transaction occurred
 
+    @Version
+    private Long version; // Incremented on every update; used for ETags and optimistic locking
+    private Instant updatedAt; // When the record was last created or changed
+
+    /**
+     * Stamps the modification time before the record is inserted or updated.
+     */
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
+    /**
+     * Copies the sale into a new detached Sale with the same values, including ID and version.
+     *
+     * @return a new Sale that later changes to this one do not affect, nor the other way round
+     */
+    public Sale copy() {
+        Sale copy = new Sale();
+        copy.id = id;
+        copy.name = name;
+        copy.itemType = itemType;
+        copy.salesAmountCents = salesAmountCents;
+        copy.currency = currency;
+        copy.transactionCode = transactionCode;
+        copy.transactionDate = transactionDate;
+        copy.version = version;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     /**
      * Gets the unique identifier for the sale.
      * @return the ID of the sale
@@ -72,19 +132,59 @@ public class Sale {
     }
 
     /**
-     * Gets the amount of the sale.
+     * Gets the amount of the sale in minor units of its currency.
+     * @return the sales amount in cents
+     */
+    @JsonIgnore
+    public long getSalesAmountCents() {
+        return salesAmountCents;
+    }
+
+    /**
+     * Sets the amount of the sale in minor units of its currency.
+     * @param salesAmountCents the sales amount in cents to set
+     */
+    @JsonIgnore
+    public void setSalesAmountCents(long salesAmountCents) {
+        this.salesAmountCents = salesAmountCents;
+    }
+
+    /**
+     * Gets the amount of the sale as a decimal, with the currency's number of decimal places.
      * @return the sales amount
      */
-    public double getSalesAmount() {
-        return salesAmount;
+    public BigDecimal getSalesAmount() {
+        return Money.fromMinorUnits(salesAmountCents, currency);
     }
 
     /**
-     * Sets the amount of the sale.
+     * Sets the amount of the sale from a decimal; an empty amount counts as zero.
      * @param salesAmount the sales amount to set
+     * @throws IllegalArgumentException if the amount has more decimal places than the currency allows
+     */
+    public void setSalesAmount(BigDecimal salesAmount) {
+        this.salesAmountCents = salesAmount == null ? 0 : Money.toMinorUnits(salesAmount, currency);
+    }
+
+    /**
+     * Gets the currency of the amount.
+     * @return the ISO 4217 currency code
      */
-    public void setSalesAmount(double salesAmount) {
-        this.salesAmount = salesAmount;
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Sets the currency of the amount. An amount already set keeps its decimal value and is rescaled to
+     * the new currency's minor units, so forms and JSON store the same amount whichever of the two they bind first.
+     * @param currency the ISO 4217 currency code to set
+     * @throws IllegalArgumentException if the amount has more decimal places than the new currency allows
+     */
+    public void setCurrency(String currency) {
+        if (salesAmountCents != 0 && this.currency != null && currency != null && !currency.equals(this.currency)) {
+            salesAmountCents = Money.toMinorUnits(Money.fromMinorUnits(salesAmountCents, this.currency), currency);
+        }
+        this.currency = currency;
     }
 
     /**
@@ -118,4 +218,36 @@ public class Sale {
     public void setTransactionDate(LocalDate transactionDate) {
         this.transactionDate = transactionDate;
     }
+
+    /**
+     * Gets the version of the record, incremented on every update.
+     * @return the version, or null for a record that has not been saved yet
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the record, as last seen by the client.
+     * @param version the version to set
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Gets the time the record was last created or changed.
+     * @return the last modification time
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets the time the record was last created or changed.
+     * @param updatedAt the last modification time to set
+     */
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
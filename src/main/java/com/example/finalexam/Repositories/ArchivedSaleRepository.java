@@ -0,0 +1,244 @@
+package com.example.finalexam.Repositories;
+
+import com.example.finalexam.Entities.ArchivedSale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ArchivedSaleRepository extends JpaRepository<ArchivedSale, Long>, JpaSpecificationExecutor<ArchivedSale> {
+
+    /**
+     * Copies every sale dated before the cutoff into the archive with one INSERT ... SELECT,
+     * in transaction date order, without loading any entity.
+     *
+     * @param cutoff the first transaction date that stays in the Sale table
+     * @return the number of sales copied
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("insert into ArchivedSale (id, name, itemType, salesAmountCents, currency, transactionCode, transactionDate, version, updatedAt) " +
+            "select s.id, s.name, s.itemType, s.salesAmountCents, s.currency, s.transactionCode, s.transactionDate, s.version, s.updatedAt " +
+            "from Sale s where s.transactionDate < :cutoff order by s.transactionDate, s.id")
+    int copyFromSalesBefore(@Param("cutoff") LocalDate cutoff);
+
+    /**
+     * Copies one archived sale back into the Sale table, with the version it was archived at, so it can be changed again.
+     * Sales archived without a version get version 0.
+     *
+     * @param id the ID of the archived sale
+     * @param now the modification time to stamp
+     * @return the number of sales copied, 0 or 1
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("insert into Sale (id, name, itemType, salesAmountCents, currency, transactionCode, transactionDate, version, updatedAt) " +
+            "select a.id, a.name, a.itemType, a.salesAmountCents, a.currency, a.transactionCode, a.transactionDate, coalesce(a.version, 0), :now " +
+            "from ArchivedSale a where a.id = :id")
+    int copyToSales(@Param("id") Long id, @Param("now") Instant now);
+
+    /**
+     * Streams every archived sale in ID order through a JDBC cursor, like the Sale table export.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return a stream over all archived sales
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select a from ArchivedSale a order by a.id")
+    Stream<ArchivedSale> streamAllByOrderById();
+
+    /**
+     * Looks up an archived sale by its transaction code, through the unique index on the code.
+     *
+     * @param transactionCode the transaction code
+     * @return the archived sale with that code, if any
+     */
+    Optional<ArchivedSale> findByTransactionCode(String transactionCode);
+
+    /**
+     * Looks up several archived sales by transaction code with one query, through the unique index on the code.
+     *
+     * @param transactionCodes the transaction codes
+     * @return the archived sales having one of the codes
+     */
+    List<ArchivedSale> findByTransactionCodeIn(Collection<String> transactionCodes);
+
+    /**
+     * Reads which of the given IDs are archived sales, without loading them.
+     *
+     * @param ids the IDs to look for
+     * @return the IDs found
+     */
+    @Query("select a.id from ArchivedSale a where a.id in :ids")
+    List<Long> findIdsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads the IDs of the archived sales of a date range, without loading them.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return the IDs found
+     */
+    @Query("select a.id from ArchivedSale a where a.transactionDate between :from and :to")
+    List<Long> findIdsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums and counts the given archived sales grouped by (item type, salesman, day), like the rollup rebuild.
+     * Read by the bulk deletes to take the deleted sales out of the rollup.
+     *
+     * @param ids the IDs of the sales
+     * @return the totals of every group the sales belong to
+     */
+    @Query("select a.itemType as itemType, a.name as name, a.transactionDate as day, count(a) as saleCount, " +
+            "sum(a.salesAmountCents) as totalCents from ArchivedSale a where a.id in :ids group by a.itemType, a.name, a.transactionDate")
+    List<RollupTotals> sumByItemTypeSalesmanAndDayForIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sums and counts the archived sales of a date range grouped by (item type, salesman, day), like the rollup rebuild.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return the totals of every group in the range
+     */
+    @Query("select a.itemType as itemType, a.name as name, a.transactionDate as day, count(a) as saleCount, " +
+            "sum(a.salesAmountCents) as totalCents from ArchivedSale a where a.transactionDate between :from and :to " +
+            "group by a.itemType, a.name, a.transactionDate")
+    List<RollupTotals> sumByItemTypeSalesmanAndDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Deletes the given archived sales with one bulk DELETE, without loading them.
+     *
+     * @param ids the IDs of the sales
+     * @return the number of sales deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ArchivedSale a where a.id in :ids")
+    int deleteByIdsInBatch(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the archived sales of a date range with one bulk DELETE, without loading them.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return the number of sales deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ArchivedSale a where a.transactionDate between :from and :to")
+    int deleteBetweenInBatch(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Finds the latest archived transaction date.
+     *
+     * @return the latest date, or null when the archive is empty
+     */
+    @Query("select max(a.transactionDate) from ArchivedSale a")
+    LocalDate findLatestTransactionDate();
+
+    /**
+     * Sums, counts and groups the archived sales of a date range by salesman.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return one row per salesman, ordered by name
+     */
+    @Query("select a.name as groupKey, count(a) as saleCount, sum(a.salesAmountCents) as totalCents from ArchivedSale a " +
+            "where a.transactionDate between :from and :to group by a.name order by a.name")
+    List<GroupTotals> sumBySalesman(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums, counts and groups the archived sales of a date range by item type.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return one row per item type, ordered by item type
+     */
+    @Query("select a.itemType as groupKey, count(a) as saleCount, sum(a.salesAmountCents) as totalCents from ArchivedSale a " +
+            "where a.transactionDate between :from and :to group by a.itemType order by a.itemType")
+    List<GroupTotals> sumByItemType(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums, counts and groups the archived sales of a date range by transaction date.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return one row per day that has archived sales, ordered by date
+     */
+    @Query("select a.transactionDate as day, count(a) as saleCount, sum(a.salesAmountCents) as totalCents from ArchivedSale a " +
+            "where a.transactionDate between :from and :to group by a.transactionDate order by a.transactionDate")
+    List<DailyTotals> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums and counts every archived sale grouped by (item type, salesman, day), for the rollup rebuild.
+     *
+     * @return the totals of every group
+     */
+    @Query("select a.itemType as itemType, a.name as name, a.transactionDate as day, count(a) as saleCount, " +
+            "sum(a.salesAmountCents) as totalCents from ArchivedSale a group by a.itemType, a.name, a.transactionDate")
+    List<RollupTotals> sumByItemTypeSalesmanAndDay();
+
+    /**
+     * Reads the sales amounts in cents of a date range from the archive and the Sale table together, in ascending order;
+     * used with a single-row page to pick a percentile over both tables.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @param pageable the offset (rank) and size of the slice to return
+     * @return the amounts at the requested ranks
+     */
+    @Query("select u.amount from (select a.salesAmountCents as amount from ArchivedSale a where a.transactionDate between :from and :to " +
+            "union all select s.salesAmountCents as amount from Sale s where s.transactionDate between :from and :to) u " +
+            "order by u.amount")
+    List<Long> findAmountsByRankWithSales(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Reads one salesman's sales amounts in cents of a date range from both tables in ascending order, to pick a percentile.
+     *
+     * @param name the salesman name
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @param pageable the offset (rank) and size of the slice to return
+     * @return the amounts at the requested ranks
+     */
+    @Query("select u.amount from (select a.salesAmountCents as amount from ArchivedSale a where a.name = :name " +
+            "and a.transactionDate between :from and :to union all select s.salesAmountCents as amount from Sale s " +
+            "where s.name = :name and s.transactionDate between :from and :to) u order by u.amount")
+    List<Long> findSalesmanAmountsByRankWithSales(@Param("name") String name, @Param("from") LocalDate from,
+                                                    @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Reads one item type's sales amounts in cents of a date range from both tables in ascending order, to pick a percentile.
+     *
+     * @param itemType the item type
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @param pageable the offset (rank) and size of the slice to return
+     * @return the amounts at the requested ranks
+     */
+    @Query("select u.amount from (select a.salesAmountCents as amount from ArchivedSale a where a.itemType = :itemType " +
+            "and a.transactionDate between :from and :to union all select s.salesAmountCents as amount from Sale s " +
+            "where s.itemType = :itemType and s.transactionDate between :from and :to) u order by u.amount")
+    List<Long> findItemTypeAmountsByRankWithSales(@Param("itemType") String itemType, @Param("from") LocalDate from,
+                                                    @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Reads the next batch of archive rows for the analytics snapshot, in ID order, past the last ID already read.
+     *
+     * @param id the highest ID already read, or 0 to start from the beginning
+     * @param limit the maximum number of rows to return
+     * @return the snapshot columns of the following rows
+     */
+    @Query("select a.id as id, a.name as name, a.itemType as itemType, a.salesAmountCents as salesAmountCents, " +
+            "a.transactionDate as transactionDate from ArchivedSale a where a.id > :id order by a.id")
+    List<SnapshotRow> findSnapshotRowsAfter(@Param("id") long id, Limit limit);
+}
@@ -0,0 +1,28 @@
+package com.example.finalexam.Repositories;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the sales totals of a single transaction date.
+ * Daily rows are the finest time grain the database returns; weeks and months are rolled up from them.
+ */
+public interface DailyTotals {
+
+    /**
+     * Gets the transaction date the totals belong to.
+     * @return the day
+     */
+    LocalDate getDay();
+
+    /**
+     * Gets the number of sales on that day.
+     * @return the sale count
+     */
+    Long getSaleCount();
+
+    /**
+     * Gets the sum of the sales amounts on that day, in cents.
+     * @return the total amount in cents
+     */
+    Long getTotalCents();
+}
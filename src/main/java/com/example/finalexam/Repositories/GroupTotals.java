@@ -0,0 +1,26 @@
+package com.example.finalexam.Repositories;
+
+/**
+ * Projection of one row of a grouped sales aggregate, e.g. the totals of one salesman or item type.
+ * Filled directly from a group-by query, so no Sale entities are loaded.
+ */
+public interface GroupTotals {
+
+    /**
+     * Gets the value the sales were grouped by (salesman name or item type).
+     * @return the group key
+     */
+    String getGroupKey();
+
+    /**
+     * Gets the number of sales in the group.
+     * @return the sale count
+     */
+    Long getSaleCount();
+
+    /**
+     * Gets the sum of the sales amounts in the group, in cents.
+     * @return the total amount in cents
+     */
+    Long getTotalCents();
+}
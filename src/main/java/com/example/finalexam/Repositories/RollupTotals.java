@@ -0,0 +1,40 @@
+package com.example.finalexam.Repositories;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the sales totals of one (item type, salesman, day) combination,
+ * the finest grain kept by the in-memory sales rollup.
+ */
+public interface RollupTotals {
+
+    /**
+     * Gets the item type of the group.
+     * @return the item type
+     */
+    String getItemType();
+
+    /**
+     * Gets the salesman of the group.
+     * @return the salesman name
+     */
+    String getName();
+
+    /**
+     * Gets the transaction date of the group.
+     * @return the day
+     */
+    LocalDate getDay();
+
+    /**
+     * Gets the number of sales in the group.
+     * @return the sale count
+     */
+    Long getSaleCount();
+
+    /**
+     * Gets the sum of the sales amounts in the group, in cents.
+     * @return the total amount in cents
+     */
+    Long getTotalCents();
+}
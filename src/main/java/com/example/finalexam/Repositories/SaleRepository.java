@@ -1,8 +1,313 @@
 package com.example.finalexam.Repositories;
 
 import com.example.finalexam.Entities.Sale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface SaleRepository extends JpaRepository<Sale, Long> {
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+public interface SaleRepository extends JpaRepository<Sale, Long>, JpaSpecificationExecutor<Sale>, SaleUpdates {
+
+    /**
+     * Streams every sale in ID order through a JDBC cursor instead of materialising a list.
+     * Rows are fetched from the driver in chunks of the fetch size and loaded read-only (no dirty-checking snapshot).
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return a stream over all sales
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from Sale s order by s.id")
+    Stream<Sale> streamAllByOrderById();
+
+    /**
+     * Looks up a sale by its transaction code, through the unique index on the code.
+     *
+     * @param transactionCode the transaction code
+     * @return the sale with that code, if any
+     */
+    Optional<Sale> findByTransactionCode(String transactionCode);
+
+    /**
+     * Bumps the version of the given sales with one bulk UPDATE, locking their rows until the transaction ends.
+     * Run first by the bulk deletes, like {@link #lockBefore}: edits that started before the delete fail their
+     * optimistic-lock check, and the rows cannot change between reading their totals and deleting them.
+     *
+     * @param ids the IDs of the sales
+     * @return the number of sales locked
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Sale s set s.version = s.version + 1 where s.id in :ids")
+    int lockByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Bumps the version of every sale of a date range with one bulk UPDATE, locking their rows like {@link #lockByIds}.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return the number of sales locked
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Sale s set s.version = s.version + 1 where s.transactionDate between :from and :to")
+    int lockBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Looks up several sales by transaction code with one query, through the unique index on the code.
+     *
+     * @param transactionCodes the transaction codes
+     * @return the sales having one of the codes
+     */
+    List<Sale> findByTransactionCodeIn(Collection<String> transactionCodes);
+
+    /**
+     * Reads which of the given IDs are sales, without loading them.
+     *
+     * @param ids the IDs to look for
+     * @return the IDs found
+     */
+    @Query("select s.id from Sale s where s.id in :ids")
+    List<Long> findIdsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads the IDs of the sales of a date range, without loading them.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return the IDs found
+     */
+    @Query("select s.id from Sale s where s.transactionDate between :from and :to")
+    List<Long> findIdsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums and counts the given sales grouped by (item type, salesman, day), like the rollup rebuild.
+     * Read by the bulk deletes to take the deleted sales out of the rollup.
+     *
+     * @param ids the IDs of the sales
+     * @return the totals of every group the sales belong to
+     */
+    @Query("select s.itemType as itemType, s.name as name, s.transactionDate as day, count(s) as saleCount, " +
+            "sum(s.salesAmountCents) as totalCents from Sale s where s.id in :ids group by s.itemType, s.name, s.transactionDate")
+    List<RollupTotals> sumByItemTypeSalesmanAndDayForIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sums and counts the sales of a date range grouped by (item type, salesman, day), like the rollup rebuild.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return the totals of every group in the range
+     */
+    @Query("select s.itemType as itemType, s.name as name, s.transactionDate as day, count(s) as saleCount, " +
+            "sum(s.salesAmountCents) as totalCents from Sale s where s.transactionDate between :from and :to " +
+            "group by s.itemType, s.name, s.transactionDate")
+    List<RollupTotals> sumByItemTypeSalesmanAndDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Deletes the given sales with one bulk DELETE, without loading them.
+     *
+     * @param ids the IDs of the sales
+     * @return the number of sales deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Sale s where s.id in :ids")
+    int deleteByIdsInBatch(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the sales of a date range with one bulk DELETE, without loading them.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return the number of sales deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Sale s where s.transactionDate between :from and :to")
+    int deleteBetweenInBatch(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Bumps the version of every sale dated before the cutoff with one bulk UPDATE.
+     * Run first by the archival job: the rows stay locked until it commits, and edits that
+     * started before it fail their optimistic-lock check instead of being lost.
+     *
+     * @param cutoff the first transaction date that stays in the Sale table
+     * @return the number of sales locked
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Sale s set s.version = s.version + 1 where s.transactionDate < :cutoff")
+    int lockBefore(@Param("cutoff") LocalDate cutoff);
+
+    /**
+     * Deletes the sales dated before the cutoff that have been copied into the archive, with one bulk DELETE.
+     * Sales committed after the copy are left for the next run.
+     *
+     * @param cutoff the first transaction date that stays in the Sale table
+     * @return the number of sales deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Sale s where s.transactionDate < :cutoff " +
+            "and exists (select 1 from ArchivedSale a where a.id = s.id)")
+    int deleteArchivedBefore(@Param("cutoff") LocalDate cutoff);
+
+    /**
+     * Keyset page ordered by ID ascending: returns the sales whose ID is greater than the given one.
+     *
+     * @param id the ID of the last sale on the previous page
+     * @param limit the maximum number of sales to return
+     * @return the next sales in ascending ID order
+     */
+    List<Sale> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Keyset page ordered by ID descending: returns the sales whose ID is less than the given one.
+     *
+     * @param id the ID of the last sale on the previous page
+     * @param limit the maximum number of sales to return
+     * @return the next sales in descending ID order
+     */
+    List<Sale> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    /**
+     * First page of the report ordered by transaction date (oldest first), ties broken by ID.
+     *
+     * @param limit the maximum number of sales to return
+     * @return the first sales in ascending date order
+     */
+    List<Sale> findByTransactionDateNotNullOrderByTransactionDateAscIdAsc(Limit limit);
+
+    /**
+     * First page of the report ordered by transaction date (newest first), ties broken by ID.
+     *
+     * @param limit the maximum number of sales to return
+     * @return the first sales in descending date order
+     */
+    List<Sale> findByTransactionDateNotNullOrderByTransactionDateDescIdDesc(Limit limit);
+
+    /**
+     * Keyset page ordered by transaction date ascending, seeking past the (date, id) of the last row seen.
+     *
+     * @param date the transaction date of the last sale on the previous page
+     * @param id the ID of the last sale on the previous page
+     * @param limit the maximum number of sales to return
+     * @return the next sales in ascending date order
+     */
+    @Query("select s from Sale s where s.transactionDate > :date or (s.transactionDate = :date and s.id > :id) " +
+            "order by s.transactionDate asc, s.id asc")
+    List<Sale> findPageAfter(@Param("date") LocalDate date, @Param("id") Long id, Limit limit);
+
+    /**
+     * Keyset page ordered by transaction date descending, seeking past the (date, id) of the last row seen.
+     *
+     * @param date the transaction date of the last sale on the previous page
+     * @param id the ID of the last sale on the previous page
+     * @param limit the maximum number of sales to return
+     * @return the next sales in descending date order
+     */
+    @Query("select s from Sale s where s.transactionDate < :date or (s.transactionDate = :date and s.id < :id) " +
+            "order by s.transactionDate desc, s.id desc")
+    List<Sale> findPageBefore(@Param("date") LocalDate date, @Param("id") Long id, Limit limit);
+
+    /**
+     * Sums, counts and groups the sales of a date range by salesman, in the database.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return one row per salesman, ordered by name
+     */
+    @Query("select s.name as groupKey, count(s) as saleCount, sum(s.salesAmountCents) as totalCents from Sale s " +
+            "where s.transactionDate between :from and :to group by s.name order by s.name")
+    List<GroupTotals> sumBySalesman(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums, counts and groups the sales of a date range by item type, in the database.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return one row per item type, ordered by item type
+     */
+    @Query("select s.itemType as groupKey, count(s) as saleCount, sum(s.salesAmountCents) as totalCents from Sale s " +
+            "where s.transactionDate between :from and :to group by s.itemType order by s.itemType")
+    List<GroupTotals> sumByItemType(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums, counts and groups the sales of a date range by transaction date, in the database.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return one row per day that has sales, ordered by date
+     */
+    @Query("select s.transactionDate as day, count(s) as saleCount, sum(s.salesAmountCents) as totalCents from Sale s " +
+            "where s.transactionDate between :from and :to group by s.transactionDate order by s.transactionDate")
+    List<DailyTotals> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums and counts every sale grouped by (item type, salesman, day), in the database.
+     * Used to rebuild the in-memory rollup; returns one row per group, not per sale.
+     *
+     * @return the totals of every group
+     */
+    @Query("select s.itemType as itemType, s.name as name, s.transactionDate as day, count(s) as saleCount, " +
+            "sum(s.salesAmountCents) as totalCents from Sale s group by s.itemType, s.name, s.transactionDate")
+    List<RollupTotals> sumByItemTypeSalesmanAndDay();
+
+    /**
+     * Reads sales amounts in cents of a date range in ascending order; used with a single-row page to pick a percentile.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @param pageable the offset (rank) and size of the slice to return
+     * @return the amounts at the requested ranks
+     */
+    @Query("select s.salesAmountCents from Sale s where s.transactionDate between :from and :to order by s.salesAmountCents")
+    List<Long> findAmountsByRank(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Reads one salesman's sales amounts in cents of a date range in ascending order, to pick a percentile.
+     *
+     * @param name the salesman name
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @param pageable the offset (rank) and size of the slice to return
+     * @return the amounts at the requested ranks
+     */
+    @Query("select s.salesAmountCents from Sale s where s.name = :name and s.transactionDate between :from and :to " +
+            "order by s.salesAmountCents")
+    List<Long> findSalesmanAmountsByRank(@Param("name") String name, @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Reads one item type's sales amounts in cents of a date range in ascending order, to pick a percentile.
+     *
+     * @param itemType the item type
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @param pageable the offset (rank) and size of the slice to return
+     * @return the amounts at the requested ranks
+     */
+    @Query("select s.salesAmountCents from Sale s where s.itemType = :itemType and s.transactionDate between :from and :to " +
+            "order by s.salesAmountCents")
+    List<Long> findItemTypeAmountsByRank(@Param("itemType") String itemType, @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Reads the next batch of Sale table rows for the analytics snapshot, in ID order, past the last ID already read.
+     *
+     * @param id the highest ID already read, or 0 to start from the beginning
+     * @param limit the maximum number of rows to return
+     * @return the snapshot columns of the following rows
+     */
+    @Query("select s.id as id, s.name as name, s.itemType as itemType, s.salesAmountCents as salesAmountCents, " +
+            "s.transactionDate as transactionDate from Sale s where s.id > :id order by s.id")
+    List<SnapshotRow> findSnapshotRowsAfter(@Param("id") long id, Limit limit);
 }
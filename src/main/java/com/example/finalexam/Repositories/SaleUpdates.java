@@ -0,0 +1,39 @@
+package com.example.finalexam.Repositories;
+
+import com.example.finalexam.Entities.Sale;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Partial updates of sales, written as a single version-checked UPDATE without reading the row first.
+ * Mixed into SaleRepository; implemented by SaleUpdatesImpl.
+ */
+public interface SaleUpdates {
+
+    /**
+     * Writes the fields of a sale that differ from a snapshot of the same version, bumps the version and
+     * stamps the modification time, in one UPDATE matching both the ID and the version the snapshot was read at.
+     * No row is locked beyond the statement itself; a concurrent change makes the UPDATE match nothing.
+     *
+     * @param previous the sale as stored at the expected version
+     * @param sale the changed sale, carrying the expected version
+     * @param updatedAt the modification time to store
+     * @return 1 if the sale was updated, 0 if it was changed, moved or deleted since that version
+     */
+    int updateChanged(Sale previous, Sale sale, Instant updatedAt);
+
+    /**
+     * Writes whole sales, each matching both its ID and the version it carries, bumps their versions and
+     * stamps the modification time, sending the UPDATEs to the database in JDBC batches.
+     * Hibernate flushes entities with dynamic updates one statement each, so many changed sales are written
+     * here instead of through the persistence context. That context is flushed first and cleared afterwards, so the
+     * sales are not attached to it and entities read before in the transaction are detached.
+     *
+     * @param sales the changed sales, carrying the expected versions; their versions are bumped
+     * @param updatedAt the modification time to store
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if a sale was changed, moved or
+     * deleted since its version
+     */
+    void updateAllInBatch(List<Sale> sales, Instant updatedAt);
+}
@@ -0,0 +1,149 @@
+package com.example.finalexam.Repositories;
+
+import com.example.finalexam.Entities.Sale;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Implementation of {@link SaleUpdates}: partial updates use the Criteria API, so the SET clause lists only
+ * the changed columns; batched updates are one JDBC batch of an UPDATE listing every column, on the
+ * transaction's connection. A driver that rewrites the batch into one statement (MySQL with
+ * rewriteBatchedStatements) reports no count per row, so those rows are read back to find out whether they matched.
+ */
+public class SaleUpdatesImpl implements SaleUpdates {
+
+    private static final String UPDATE_ALL = "update sale set name = ?, item_type = ?, sales_amount_cents = ?, currency = ?,"
+            + " transaction_code = ?, transaction_date = ?, updated_at = ?, version = version + 1"
+            + " where id = ? and version = ?"; // Whole-row update of one sale at an expected version
+
+    @PersistenceContext
+    private EntityManager entityManager; // Shared transactional entity manager
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize; // Statements sent to the database per JDBC batch
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int updateChanged(Sale previous, Sale sale, Instant updatedAt) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Sale> update = cb.createCriteriaUpdate(Sale.class);
+        Root<Sale> root = update.from(Sale.class);
+        setIfChanged(update, "name", previous.getName(), sale.getName());
+        setIfChanged(update, "itemType", previous.getItemType(), sale.getItemType());
+        setIfChanged(update, "salesAmountCents", previous.getSalesAmountCents(), sale.getSalesAmountCents());
+        setIfChanged(update, "currency", previous.getCurrency(), sale.getCurrency());
+        setIfChanged(update, "transactionCode", previous.getTransactionCode(), sale.getTransactionCode());
+        setIfChanged(update, "transactionDate", previous.getTransactionDate(), sale.getTransactionDate());
+        update.set(root.<Long>get("version"), cb.sum(root.get("version"), 1L));
+        update.set(root.<Instant>get("updatedAt"), updatedAt);
+        update.where(cb.equal(root.get("id"), sale.getId()), cb.equal(root.get("version"), sale.getVersion()));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void updateAllInBatch(List<Sale> sales, Instant updatedAt) {
+        Session session = entityManager.unwrap(Session.class);
+        session.flush(); // Rows still pending in the persistence context must exist before they are updated
+        Timestamp stamp = Timestamp.from(updatedAt.truncatedTo(ChronoUnit.MICROS)); // As stored, so it can be read back
+        session.doWork(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_ALL)) {
+                for (int start = 0; start < sales.size(); start += batchSize) {
+                    List<Sale> batch = sales.subList(start, Math.min(start + batchSize, sales.size()));
+                    for (Sale sale : batch) {
+                        update.setString(1, sale.getName());
+                        update.setString(2, sale.getItemType());
+                        update.setLong(3, sale.getSalesAmountCents());
+                        update.setString(4, sale.getCurrency());
+                        update.setString(5, sale.getTransactionCode());
+                        update.setObject(6, sale.getTransactionDate());
+                        update.setTimestamp(7, stamp);
+                        update.setLong(8, sale.getId());
+                        update.setLong(9, sale.getVersion());
+                        update.addBatch();
+                    }
+                    int[] counts = update.executeBatch();
+                    boolean unknown = false;
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            throw new ObjectOptimisticLockingFailureException(Sale.class, batch.get(i).getId());
+                        }
+                        unknown |= counts[i] == Statement.SUCCESS_NO_INFO;
+                    }
+                    if (unknown) {
+                        checkUpdated(connection, batch, stamp);
+                    }
+                }
+            }
+        });
+        session.clear(); // Drops copies of the updated rows read before, so later reads see the new values
+        for (Sale sale : sales) {
+            sale.setVersion(sale.getVersion() + 1);
+            sale.setUpdatedAt(stamp.toInstant());
+        }
+    }
+
+    /**
+     * Reads back the rows of a batch whose update counts the driver did not report, and fails unless each one now
+     * has the version after the one its sale carries and the modification time of this batch. Another writer's
+     * change would have left a different modification time, so a row it bumped to the same version is not
+     * mistaken for this one.
+     */
+    private static void checkUpdated(Connection connection, List<Sale> batch, Timestamp updatedAt) throws SQLException {
+        String ids = String.join(", ", Collections.nCopies(batch.size(), "?"));
+        Map<Long, Long> versions = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "select id, version from sale where updated_at = ? and id in (" + ids + ")")) {
+            select.setTimestamp(1, updatedAt);
+            for (int i = 0; i < batch.size(); i++) {
+                select.setLong(i + 2, batch.get(i).getId());
+            }
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    versions.put(rows.getLong(1), rows.getLong(2));
+                }
+            }
+        }
+        for (Sale sale : batch) {
+            if (!Objects.equals(versions.get(sale.getId()), sale.getVersion() + 1)) {
+                throw new ObjectOptimisticLockingFailureException(Sale.class, sale.getId());
+            }
+        }
+    }
+
+    /**
+     * Adds a column to the SET clause if its value changed.
+     */
+    private static <T> void setIfChanged(CriteriaUpdate<Sale> update, String field, T previous, T current) {
+        if (!Objects.equals(previous, current)) {
+            update.set(field, current);
+        }
+    }
+}
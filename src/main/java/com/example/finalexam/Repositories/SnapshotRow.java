@@ -0,0 +1,40 @@
+package com.example.finalexam.Repositories;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the columns of a sale kept in the in-memory analytics snapshot.
+ * Reading only these columns skips the transaction code, version and timestamps of each row.
+ */
+public interface SnapshotRow {
+
+    /**
+     * Gets the ID of the sale.
+     * @return the sale ID
+     */
+    Long getId();
+
+    /**
+     * Gets the salesman name.
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Gets the item type.
+     * @return the item type
+     */
+    String getItemType();
+
+    /**
+     * Gets the sales amount, in cents.
+     * @return the amount in cents
+     */
+    Long getSalesAmountCents();
+
+    /**
+     * Gets the transaction date.
+     * @return the day, or null if the sale has none
+     */
+    LocalDate getTransactionDate();
+}
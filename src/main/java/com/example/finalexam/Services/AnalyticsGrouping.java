@@ -0,0 +1,12 @@
+package com.example.finalexam.Services;
+
+/**
+ * The dimensions the sales dashboard can group totals by.
+ */
+public enum AnalyticsGrouping {
+    SALESMAN, // One row per salesman name
+    ITEM_TYPE, // One row per item type
+    DAY, // One row per transaction date
+    WEEK, // One row per ISO week (Monday to Sunday)
+    MONTH // One row per calendar month
+}
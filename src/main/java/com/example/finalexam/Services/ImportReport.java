@@ -0,0 +1,71 @@
+package com.example.finalexam.Services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk sales import: how many rows were stored and which rows were rejected and why.
+ * Only the first {@link #MAX_REJECTED_DETAILS} rejections are kept in detail so a bad file cannot
+ * blow up the report itself.
+ */
+public class ImportReport {
+
+    public static final int MAX_REJECTED_DETAILS = 1000; // Cap on the rejected rows listed individually
+
+    private long accepted; // Rows stored in the database
+    private long rejected; // Rows refused by validation, parsing or the database
+    private final List<RejectedRow> rejectedRows = new ArrayList<>(); // Details of the first rejected rows
+
+    /**
+     * A row that could not be imported.
+     *
+     * @param line the line (CSV) or record number (JSON) of the row, starting at 1
+     * @param reason why the row was rejected
+     */
+    public record RejectedRow(long line, String reason) {
+    }
+
+    /**
+     * Records that a number of rows were stored.
+     * @param count the number of rows stored
+     */
+    public void addAccepted(long count) {
+        accepted += count;
+    }
+
+    /**
+     * Records a rejected row.
+     * @param line the line or record number of the row
+     * @param reason why the row was rejected
+     */
+    public void addRejected(long line, String reason) {
+        rejected++;
+        if (rejectedRows.size() < MAX_REJECTED_DETAILS) {
+            rejectedRows.add(new RejectedRow(line, reason));
+        }
+    }
+
+    /**
+     * Gets the number of rows stored.
+     * @return the accepted row count
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Gets the number of rows rejected.
+     * @return the rejected row count
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the details of the first rejected rows.
+     * @return at most {@link #MAX_REJECTED_DETAILS} rejected rows, in file order
+     */
+    public List<RejectedRow> getRejectedRows() {
+        return rejectedRows;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Entities.Sale;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded in-memory record of recently created sales, keyed by transaction code.
+ * Each entry is a future that completes once the creating transaction commits, so a resubmitted
+ * sale is answered from memory, and a duplicate arriving while the first is still being stored
+ * waits for that one code only instead of inserting a second row. Entries expire by size and age
+ * (sales.idempotency.spec); older duplicates fall through to the unique index on transactionCode.
+ */
+@Component
+public class RecentSaleCodes {
+
+    public static final String DEFAULT_SPEC = "maximumSize=100000,expireAfterWrite=24h"; // Used when not configured
+
+    @Value("${sales.idempotency.spec:" + DEFAULT_SPEC + "}")
+    private String spec; // Caffeine spec bounding the record
+
+    private AsyncCache<String, Sale> sales = Caffeine.from(DEFAULT_SPEC).buildAsync(); // Creations by code
+
+    /**
+     * Rebuilds the record with the configured bounds.
+     */
+    @PostConstruct
+    public void init() {
+        sales = Caffeine.from(spec).buildAsync();
+    }
+
+    /**
+     * The creation of a sale, completed with the stored sale once its transaction commits.
+     */
+    public static final class Pending extends CompletableFuture<Sale> {
+        private final Thread owner = Thread.currentThread(); // Thread running the creating transaction
+        private volatile Sale stored; // The sale as stored, before its transaction commits
+
+        /**
+         * Tells whether the creation belongs to the current thread's still-open transaction.
+         * @return true if waiting for this creation would wait on the caller itself
+         */
+        public boolean isOwnedByCurrentThread() {
+            return owner == Thread.currentThread() && !isDone();
+        }
+
+        /**
+         * Gets the sale as stored by the still-open creating transaction.
+         * @return the stored sale, or null before it is stored
+         */
+        public Sale getStored() {
+            return stored;
+        }
+
+        /**
+         * Records the sale as stored by the creating transaction.
+         * @param stored the stored sale
+         */
+        public void setStored(Sale stored) {
+            this.stored = stored;
+        }
+    }
+
+    /**
+     * Claims a transaction code for a new sale.
+     *
+     * @param code the transaction code
+     * @param pending the creation the caller will complete with the stored sale
+     * @return null if the caller now owns the code, otherwise the earlier creation of the same code
+     */
+    public CompletableFuture<Sale> claim(String code, Pending pending) {
+        return sales.asMap().putIfAbsent(code, pending);
+    }
+
+    /**
+     * Gives up a claim whose creation failed, so the code can be submitted again.
+     *
+     * @param code the transaction code
+     * @param pending the creation passed to {@link #claim}
+     */
+    public void release(String code, Pending pending) {
+        sales.asMap().remove(code, pending);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Config.CacheConfig;
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
+import com.example.finalexam.Repositories.SaleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Service class moving sales of closed periods from the Sale table into the archive.
+ * The Sale table holds the recent (hot) sales and stays small, so its indexes and the report
+ * queries over it do not grow with history; the archive holds everything older than the retention,
+ * a whole month at a time. Archived sales keep their ID and code and still count in the sales rollup,
+ * which covers both tables. The archive watermark is the date before which sales may be archived;
+ * SaleService skips the archive for queries that start on or after it.
+ * Several instances may share the database. The watermark is read from the archive itself and re-read
+ * every sales.archive.watermark-refresh-ms, so an instance sees another's archival run within that time
+ * (plus the replica's lag, when reads go to a replica).
+ * The nightly job should run on one instance only (set sales.archive.cron to - on the others); runs that
+ * do overlap are safe, since the second waits on the rows the first locked and then finds nothing to move.
+ */
+@Service
+public class SaleArchiveService {
+
+    public static final String ARCHIVED_METRIC = "sales.archived"; // Sales moved into the archive
+
+    private static final Logger log = LoggerFactory.getLogger(SaleArchiveService.class);
+
+    @Autowired
+    private SaleRepository saleRepository; // Hot table
+
+    @Autowired
+    private ArchivedSaleRepository archivedSaleRepository; // Cold table
+
+    @Autowired
+    private TransactionTemplate transactionTemplate; // Copy and delete commit together
+
+    @Autowired
+    private CacheManager cacheManager; // Cached sales and pages are evicted after a move
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry receiving the archived sale count
+
+    @Value("${sales.archive.retention-months:12}")
+    private int retentionMonths; // Whole months kept in the Sale table besides the current one
+
+    private volatile LocalDate watermark; // Every archived sale is dated before this day; null while the archive is empty
+
+    /**
+     * Reads the watermark from the latest archived sale.
+     */
+    @PostConstruct
+    public void init() {
+        refreshWatermark();
+    }
+
+    /**
+     * Gets the date before which every archived sale is dated.
+     * Queries for sales on or after it can skip the archive.
+     *
+     * @return the watermark, or null if nothing has been archived
+     */
+    public LocalDate getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Re-reads the watermark from the latest archived sale, through the transaction date index, to pick up
+     * sales archived by other instances (every sales.archive.watermark-refresh-ms). Request paths only read
+     * the field, so the refresh adds no statement to them.
+     */
+    @Scheduled(fixedDelayString = "${sales.archive.watermark-refresh-ms:5000}",
+            initialDelayString = "${sales.archive.watermark-refresh-ms:5000}")
+    public void refreshWatermark() {
+        LocalDate latest = archivedSaleRepository.findLatestTransactionDate();
+        watermark = latest == null ? null : latest.plusDays(1);
+    }
+
+    /**
+     * Archives the months that fell out of the retention window (sales.archive.cron, nightly by default).
+     *
+     * @return the number of sales archived
+     */
+    @Scheduled(cron = "${sales.archive.cron:0 30 2 * * *}")
+    public int archiveClosedPeriods() {
+        return archiveBefore(LocalDate.now().minusMonths(retentionMonths).withDayOfMonth(1));
+    }
+
+    /**
+     * Moves every sale dated before the cutoff into the archive, in one transaction:
+     * the rows are locked, copied with INSERT ... SELECT and deleted, without loading any entity.
+     * The sales rollup is unchanged, since archived sales still count.
+     *
+     * @param cutoff the first transaction date that stays in the Sale table
+     * @return the number of sales archived
+     */
+    public int archiveBefore(LocalDate cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            saleRepository.lockBefore(cutoff);
+            int copied = archivedSaleRepository.copyFromSalesBefore(cutoff);
+            int deleted = saleRepository.deleteArchivedBefore(cutoff);
+            if (copied != deleted) {
+                throw new IllegalStateException("archived " + copied + " sales but deleted " + deleted + "; rolled back");
+            }
+            return copied;
+        });
+        if (moved == null || moved == 0) {
+            return 0;
+        }
+        if (watermark == null || cutoff.isAfter(watermark)) {
+            watermark = cutoff; // Other instances pick the move up on their next refresh
+        }
+        evict(CacheConfig.SALES_CACHE);
+        evict(CacheConfig.SALE_PAGES_CACHE);
+        meterRegistry.counter(ARCHIVED_METRIC).increment(moved);
+        log.info("Archived {} sales dated before {}", moved, cutoff);
+        return moved;
+    }
+
+    /**
+     * Clears a cache whose entries may point at rows that moved.
+     */
+    private void evict(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Entities.ArchivedSale;
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.function.ThrowingConsumer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Service class for full exports of the sales table.
+ * Rows are pulled from a database cursor and written straight to the given output stream, and each
+ * entity is detached once written, so heap use stays constant however many rows are exported.
+ * Archived sales are exported first, then the Sale table, each in ID order.
+ * The full sales report is streamed the same way, in report order, for rendering straight into the response.
+ */
+@Service
+public class SaleExportService {
+
+    public static final int FLUSH_EVERY_ROWS = 1000; // Rows written between explicit flushes of the output
+    public static final int FETCH_SIZE = 500; // Rows the report cursors fetch from the database at a time
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository providing the cursor over all sales
+
+    @Autowired
+    private ArchivedSaleRepository archivedSaleRepository; // Repository providing the cursor over archived sales
+
+    @Autowired
+    private ObjectMapper objectMapper; // JSON writer for NDJSON exports
+
+    @PersistenceContext
+    private EntityManager entityManager; // Persistence context the streamed entities are detached from
+
+    @Autowired
+    private SaleArchiveService saleArchiveService; // Watermark telling whether the archive can hold report rows
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry receiving the exported row counts
+
+    /**
+     * Writes every sale as CSV, with a header row. The columns match the bulk import format plus the ID.
+     *
+     * @param output the stream to write to; it is flushed but not closed
+     * @return the number of sales written
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write("id,name,itemType,salesAmount,transactionCode,transactionDate\n");
+        writer.flush(); // Send the first bytes before the first row is read
+        long count = 0;
+        try (Stream<Sale> sales = streamAll()) {
+            Iterator<Sale> rows = sales.iterator();
+            while (rows.hasNext()) {
+                Sale sale = rows.next();
+                writer.write(String.valueOf(sale.getId()));
+                writer.write(',');
+                writer.write(csvField(sale.getName()));
+                writer.write(',');
+                writer.write(csvField(sale.getItemType()));
+                writer.write(',');
+                writer.write(sale.getSalesAmount().toPlainString());
+                writer.write(',');
+                writer.write(csvField(sale.getTransactionCode()));
+                writer.write(',');
+                writer.write(sale.getTransactionDate() == null ? "" : sale.getTransactionDate().toString());
+                writer.write('\n');
+                entityManager.detach(sale);
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        meterRegistry.summary(SaleService.ROWS_METRIC, "query", "export-csv").record(count);
+        return count;
+    }
+
+    /**
+     * Writes every sale as newline-delimited JSON, one object per line.
+     *
+     * @param output the stream to write to; it is flushed but not closed
+     * @return the number of sales written
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream output) throws IOException {
+        long count = 0;
+        try (Stream<Sale> sales = streamAll();
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET) // Leave the response stream open
+                     .withRootValueSeparator("\n")
+                     .writeValues(output)) {
+            Iterator<Sale> rows = sales.iterator();
+            while (rows.hasNext()) {
+                Sale sale = rows.next();
+                writer.write(sale);
+                entityManager.detach(sale);
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        if (count > 0) {
+            output.write('\n');
+        }
+        output.flush();
+        meterRegistry.summary(SaleService.ROWS_METRIC, "query", "export-ndjson").record(count);
+        return count;
+    }
+
+    /**
+     * Runs an action over every sale matching a filter, in report order, inside one read-only transaction.
+     * The sales are pulled lazily from read-only cursors over the Sale table and the archive, merged by the
+     * sort key, so the action can start writing before the last row is read. Each sale is detached as soon as
+     * the iterator moves past it; the action must not keep the sales it has seen.
+     * Sales without a transaction date only appear when sorting by ID, as in the paged report.
+     *
+     * @param filter the filter criteria, or null for none
+     * @param sort the sort field, either {@link SalePage#SORT_BY_ID} or {@link SalePage#SORT_BY_DATE}
+     * @param ascending true to sort in ascending order, false for descending
+     * @param action the action consuming the sales, typically rendering them into the response
+     * @return the number of sales the action read
+     */
+    @Transactional(readOnly = true)
+    public long streamReport(SaleFilter filter, String sort, boolean ascending, ThrowingConsumer<Iterator<Sale>> action) {
+        String sortField = SalePage.SORT_BY_ID.equals(sort) ? SalePage.SORT_BY_ID : SalePage.SORT_BY_DATE;
+        SaleFilter criteria = filter == null ? new SaleFilter() : filter;
+        LocalDate watermark = saleArchiveService.getWatermark();
+        boolean skipArchive = watermark == null || criteria.getFromDate() != null && !criteria.getFromDate().isBefore(watermark);
+        Comparator<Sale> order = SalePage.SORT_BY_ID.equals(sortField)
+                ? Comparator.comparing(Sale::getId)
+                : Comparator.comparing(Sale::getTransactionDate).thenComparing(Sale::getId);
+        try (Stream<Sale> hot = cursor(Sale.class, criteria.toSpecification(), sortField, ascending);
+             Stream<ArchivedSale> cold = skipArchive ? Stream.empty()
+                     : cursor(ArchivedSale.class, criteria.toSpecification(), sortField, ascending)) {
+            Iterator<Sale> archived = cold.map(sale -> {
+                entityManager.detach(sale);
+                return sale.toSale();
+            }).iterator();
+            ReportRows rows = new ReportRows(hot.iterator(), archived, ascending ? order : order.reversed());
+            action.accept(rows);
+            rows.release();
+            meterRegistry.summary(SaleService.ROWS_METRIC, "query", "report-stream").record(rows.count);
+            return rows.count;
+        }
+    }
+
+    /**
+     * Opens a read-only cursor over the rows of either table matching a filter, in report order.
+     * The rows are fetched in batches of {@link #FETCH_SIZE} and Hibernate keeps no snapshots of them.
+     */
+    private <T> Stream<T> cursor(Class<T> type, Specification<T> criteria, String sortField, boolean ascending) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        List<Predicate> where = new ArrayList<>();
+        where.add(criteria.toPredicate(root, query, cb));
+        List<Order> orders = new ArrayList<>();
+        if (SalePage.SORT_BY_DATE.equals(sortField)) {
+            where.add(cb.isNotNull(root.get("transactionDate")));
+            orders.add(ascending ? cb.asc(root.get("transactionDate")) : cb.desc(root.get("transactionDate")));
+        }
+        orders.add(ascending ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+        query.select(root).where(where.toArray(new Predicate[0])).orderBy(orders);
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Merges the two sorted cursors of the report into one iterator, detaching each sale
+     * once the next one is requested.
+     */
+    private final class ReportRows implements Iterator<Sale> {
+        private final Iterator<Sale> hot; // Cursor over the Sale table
+        private final Iterator<Sale> archived; // Cursor over the archive, already detached
+        private final Comparator<Sale> order; // Report order, including its direction
+        private Sale nextHot; // Head of the Sale table cursor, or null once it is exhausted
+        private Sale nextArchived; // Head of the archive cursor, or null once it is exhausted
+        private Sale current; // Sale last handed out, detached on the following call
+        private long count; // Sales handed out so far
+
+        private ReportRows(Iterator<Sale> hot, Iterator<Sale> archived, Comparator<Sale> order) {
+            this.hot = hot;
+            this.archived = archived;
+            this.order = order;
+            this.nextHot = hot.hasNext() ? hot.next() : null;
+            this.nextArchived = archived.hasNext() ? archived.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextHot != null || nextArchived != null;
+        }
+
+        @Override
+        public Sale next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            release();
+            if (nextArchived == null || nextHot != null && order.compare(nextHot, nextArchived) <= 0) {
+                current = nextHot;
+                nextHot = hot.hasNext() ? hot.next() : null;
+            } else {
+                current = nextArchived;
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+            count++;
+            return current;
+        }
+
+        /**
+         * Detaches the sale last handed out.
+         */
+        private void release() {
+            if (current != null) {
+                entityManager.detach(current);
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * Chains the cursors over the archive and the Sale table; closing the stream closes both.
+     * Archived entities are detached as soon as they are copied into a Sale.
+     */
+    private Stream<Sale> streamAll() {
+        Stream<Sale> archived = archivedSaleRepository.streamAllByOrderById().map(sale -> {
+            entityManager.detach(sale);
+            return sale.toSale();
+        });
+        return Stream.concat(archived, saleRepository.streamAllByOrderById());
+    }
+
+    /**
+     * Quotes a CSV field when it contains a separator, quote or line break.
+     */
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
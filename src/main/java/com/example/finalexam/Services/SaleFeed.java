@@ -0,0 +1,286 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Entities.Sale;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live feed of committed sale changes and running totals, pushed to dashboards as server-sent events.
+ * Writers only hand their changes to each subscriber's pending set, keyed by sale ID, and never touch
+ * the network: a subscriber's events are sent by a sender task started when its set becomes non-empty,
+ * which ends once the set is drained. Senders run on pooled platform threads, not virtual ones: SseEmitter
+ * (Spring 6.1) writes each event to the socket inside a synchronized method, which would pin the carrier of a
+ * virtual thread for as long as a slow client takes to read. Changes arriving while a slow client is still being written to are
+ * coalesced (the latest state of a sale wins, a sale created and deleted in between is dropped, and totals
+ * are sent once per round). A subscriber falling more than sales.feed.max-pending sales behind is told
+ * to reload instead. Idle subscribers hold no thread at all, only their open connection.
+ *
+ * Events: created and updated carry the sale as JSON, deleted carries {"id": ...}, totals carries the
+ * running count and amount of all sales, and reload tells the client to re-query.
+ */
+@Component
+public class SaleFeed {
+
+    public static final String CREATED = "created"; // A new sale was stored
+    public static final String UPDATED = "updated"; // A stored sale was changed
+    public static final String DELETED = "deleted"; // A sale was deleted
+    public static final String TOTALS = "totals"; // Running totals of all sales
+    public static final String RELOAD = "reload"; // Too many changes were coalesced; the client should re-query
+    public static final String SUBSCRIBERS_METRIC = "sales.feed.subscribers"; // Open feed connections
+
+    @Autowired
+    private SalesRollup salesRollup; // Source of the running totals
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry receiving the subscriber gauge
+
+    @Value("${sales.feed.max-pending:1000}")
+    private int maxPending; // Sales a subscriber may fall behind before being told to reload
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet(); // Open feed connections
+
+    private final ExecutorService senders = Executors.newCachedThreadPool(
+            Thread.ofPlatform().daemon().name("sales-feed-", 0).factory()); // Threads sending events; idle ones expire
+
+    /**
+     * A committed change to one sale.
+     *
+     * @param type CREATED, UPDATED or DELETED
+     * @param id the ID of the sale
+     * @param sale the sale as stored, or null when deleted
+     */
+    public record Change(String type, Long id, Sale sale) {
+
+        /**
+         * Describes a new sale.
+         * @param sale the stored sale
+         * @return the change
+         */
+        public static Change created(Sale sale) {
+            return new Change(CREATED, sale.getId(), sale);
+        }
+
+        /**
+         * Describes a changed sale.
+         * @param sale the stored sale
+         * @return the change
+         */
+        public static Change updated(Sale sale) {
+            return new Change(UPDATED, sale.getId(), sale);
+        }
+
+        /**
+         * Describes a deleted sale.
+         * @param id the ID of the deleted sale
+         * @return the change
+         */
+        public static Change deleted(Long id) {
+            return new Change(DELETED, id, null);
+        }
+    }
+
+    /**
+     * Registers the subscriber gauge.
+     */
+    @PostConstruct
+    public void init() {
+        Gauge.builder(SUBSCRIBERS_METRIC, subscribers, Set::size)
+                .description("Open live sales feed connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a feed connection. The current totals are sent first, then every change committed from now on.
+     * The subscriber is dropped when the connection completes, times out or fails.
+     *
+     * @param emitter the emitter of the connection
+     */
+    public void subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.offer(List.of());
+    }
+
+    /**
+     * Hands committed changes to every subscriber. Called by writers after their transaction commits;
+     * returns without waiting for any client.
+     *
+     * @param changes the changes, in commit order
+     */
+    public void publish(List<Change> changes) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(changes);
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber (sales.feed.heartbeat-ms), so proxies keep idle connections
+     * open and connections of departed clients are noticed and dropped.
+     */
+    @Scheduled(fixedDelayString = "${sales.feed.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.ping();
+        }
+    }
+
+    /**
+     * Completes every feed connection on shutdown; clients reconnect to another instance.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        senders.shutdown();
+    }
+
+    /**
+     * One feed connection and the changes not yet sent to it.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter; // Connection events are sent to
+        private final ReentrantLock lock = new ReentrantLock(); // Guards the fields below, never held while sending
+        private Map<Long, Change> pending = new LinkedHashMap<>(); // Latest unsent change per sale
+        private boolean totals; // Whether the totals changed since they were last sent
+        private boolean reload; // Whether changes were dropped for falling behind
+        private boolean ping; // Whether a heartbeat is due
+        private boolean sending; // Whether a sender task is running for this subscriber
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Coalesces changes into the pending set and wakes the sender.
+         */
+        private void offer(List<Change> changes) {
+            lock.lock();
+            try {
+                if (!reload && pending.size() + changes.size() > maxPending) {
+                    pending.clear();
+                    reload = true;
+                }
+                if (!reload) {
+                    for (Change change : changes) {
+                        merge(change);
+                    }
+                }
+                totals = true;
+                wake();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Replaces the pending change of a sale with a newer one. A sale the client has not
+         * been told about yet stays created, or is forgotten if it is deleted again.
+         */
+        private void merge(Change change) {
+            Change earlier = pending.get(change.id());
+            if (earlier == null || !CREATED.equals(earlier.type())) {
+                pending.put(change.id(), change);
+            } else if (DELETED.equals(change.type())) {
+                pending.remove(change.id());
+            } else {
+                pending.put(change.id(), Change.created(change.sale()));
+            }
+        }
+
+        /**
+         * Asks for a heartbeat to be sent.
+         */
+        private void ping() {
+            lock.lock();
+            try {
+                ping = true;
+                wake();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Starts a sender unless one is running. Called with the lock held.
+         */
+        private void wake() {
+            if (!sending) {
+                sending = true;
+                try {
+                    senders.execute(this::send);
+                } catch (RejectedExecutionException e) {
+                    sending = false; // Shutting down; the connection is being completed
+                }
+            }
+        }
+
+        /**
+         * Sends rounds of pending events until nothing is left, then ends.
+         * A failed send drops the subscriber; its sender is never restarted.
+         */
+        private void send() {
+            while (true) {
+                Map<Long, Change> changes;
+                boolean sendTotals;
+                boolean sendReload;
+                boolean sendPing;
+                lock.lock();
+                try {
+                    if (pending.isEmpty() && !totals && !reload && !ping) {
+                        sending = false;
+                        return;
+                    }
+                    changes = pending;
+                    pending = new LinkedHashMap<>();
+                    sendTotals = totals;
+                    sendReload = reload;
+                    sendPing = ping;
+                    totals = reload = ping = false;
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    if (sendReload) {
+                        emitter.send(SseEmitter.event().name(RELOAD).data(""));
+                    }
+                    for (Change change : changes.values()) {
+                        Object data = change.sale() != null ? change.sale() : Map.of("id", change.id());
+                        emitter.send(SseEmitter.event().name(change.type()).data(data, MediaType.APPLICATION_JSON));
+                    }
+                    if (sendTotals) {
+                        emitter.send(SseEmitter.event().name(TOTALS).data(salesRollup.getOverall(), MediaType.APPLICATION_JSON));
+                    } else if (sendPing && changes.isEmpty() && !sendReload) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(this); // The client is gone or the connection was completed
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.finalexam.Services;
+
+import jakarta.persistence.criteria.Predicate;
+import com.example.finalexam.Entities.Money;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Filter criteria of the sales report, bound from request parameters.
+ * Every criterion is optional; blank text criteria are ignored. Each criterion maps onto a column
+ * that Sale declares an index for, so filtered pages are index range scans rather than table scans.
+ * Used as part of the report page cache key, hence equals and hashCode.
+ */
+public class SaleFilter {
+
+    private String namePrefix; // Salesman names starting with this text (case-sensitive)
+    private String itemType; // Exact item type
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fromDate; // First transaction date included
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate toDate; // Last transaction date included
+    private BigDecimal minAmount; // Smallest sales amount included
+    private BigDecimal maxAmount; // Largest sales amount included
+    private String transactionCode; // Exact transaction code
+
+    /**
+     * Tells whether no criterion is set.
+     * @return true if the filter matches every sale
+     */
+    public boolean isEmpty() {
+        return isBlank(namePrefix) && isBlank(itemType) && fromDate == null && toDate == null
+                && minAmount == null && maxAmount == null && isBlank(transactionCode);
+    }
+
+    /**
+     * Builds the JPA criteria of the set criteria.
+     * Sale and ArchivedSale share the attribute names, so the same criteria apply to either table.
+     * @param <T> the entity type, Sale or ArchivedSale
+     * @return a specification matching the sales that pass the filter
+     */
+    public <T> Specification<T> toSpecification() {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (!isBlank(namePrefix)) {
+                predicates.add(cb.like(root.get("name"), escapeLike(namePrefix.trim()) + "%", '\\'));
+            }
+            if (!isBlank(itemType)) {
+                predicates.add(cb.equal(root.get("itemType"), itemType.trim()));
+            }
+            if (fromDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("transactionDate"), fromDate));
+            }
+            if (toDate != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("transactionDate"), toDate));
+            }
+            if (minAmount != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("salesAmountCents"), toCents(minAmount, RoundingMode.CEILING)));
+            }
+            if (maxAmount != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("salesAmountCents"), toCents(maxAmount, RoundingMode.FLOOR)));
+            }
+            if (!isBlank(transactionCode)) {
+                predicates.add(cb.equal(root.get("transactionCode"), transactionCode.trim()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Renders the set criteria as URL query parameters, so paging links keep the filter.
+     * @return the encoded parameters, each preceded by "&amp;", or an empty string
+     */
+    public String getQueryString() {
+        StringBuilder query = new StringBuilder();
+        appendParam(query, "namePrefix", isBlank(namePrefix) ? null : namePrefix);
+        appendParam(query, "itemType", isBlank(itemType) ? null : itemType);
+        appendParam(query, "fromDate", fromDate);
+        appendParam(query, "toDate", toDate);
+        appendParam(query, "minAmount", minAmount == null ? null : minAmount.toPlainString());
+        appendParam(query, "maxAmount", maxAmount == null ? null : maxAmount.toPlainString());
+        appendParam(query, "transactionCode", isBlank(transactionCode) ? null : transactionCode);
+        return query.toString();
+    }
+
+    /**
+     * Appends one query parameter when it has a value.
+     */
+    private static void appendParam(StringBuilder query, String name, Object value) {
+        if (value != null) {
+            query.append('&').append(name).append('=').append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Converts an amount bound to whole cents, rounding towards the inside of the range.
+     * Also used by the analytics snapshot to apply the amount bounds to its cents column.
+     */
+    static long toCents(BigDecimal amount, RoundingMode rounding) {
+        return amount.setScale(Money.fractionDigits(Money.DEFAULT_CURRENCY), rounding)
+                .movePointRight(Money.fractionDigits(Money.DEFAULT_CURRENCY)).longValueExact();
+    }
+
+    /**
+     * Escapes the LIKE wildcards of user input, with backslash as the escape character.
+     */
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Tells whether a text criterion is unset.
+     */
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+
+    /**
+     * Gets the salesman name prefix.
+     * @return the name prefix, or null
+     */
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    /**
+     * Sets the salesman name prefix.
+     * @param namePrefix the name prefix
+     */
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    /**
+     * Gets the item type.
+     * @return the item type, or null
+     */
+    public String getItemType() {
+        return itemType;
+    }
+
+    /**
+     * Sets the item type.
+     * @param itemType the item type
+     */
+    public void setItemType(String itemType) {
+        this.itemType = itemType;
+    }
+
+    /**
+     * Gets the first transaction date included.
+     * @return the start date, or null
+     */
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    /**
+     * Sets the first transaction date included.
+     * @param fromDate the start date
+     */
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    /**
+     * Gets the last transaction date included.
+     * @return the end date, or null
+     */
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /**
+     * Sets the last transaction date included.
+     * @param toDate the end date
+     */
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    /**
+     * Gets the smallest sales amount included.
+     * @return the minimum amount, or null
+     */
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    /**
+     * Sets the smallest sales amount included.
+     * @param minAmount the minimum amount
+     */
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    /**
+     * Gets the largest sales amount included.
+     * @return the maximum amount, or null
+     */
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    /**
+     * Sets the largest sales amount included.
+     * @param maxAmount the maximum amount
+     */
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * Gets the exact transaction code.
+     * @return the transaction code, or null
+     */
+    public String getTransactionCode() {
+        return transactionCode;
+    }
+
+    /**
+     * Sets the exact transaction code.
+     * @param transactionCode the transaction code
+     */
+    public void setTransactionCode(String transactionCode) {
+        this.transactionCode = transactionCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SaleFilter other)) {
+            return false;
+        }
+        return Objects.equals(namePrefix, other.namePrefix) && Objects.equals(itemType, other.itemType)
+                && Objects.equals(fromDate, other.fromDate) && Objects.equals(toDate, other.toDate)
+                && Objects.equals(minAmount, other.minAmount) && Objects.equals(maxAmount, other.maxAmount)
+                && Objects.equals(transactionCode, other.transactionCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(namePrefix, itemType, fromDate, toDate, minAmount, maxAmount, transactionCode);
+    }
+}
@@ -0,0 +1,381 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Config.CacheConfig;
+import com.example.finalexam.Entities.Sale;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service class for bulk sales imports.
+ * Reads CSV or JSON uploads row by row without loading the whole file, validates each row with
+ * the same rules as the sales form, and stores valid rows in batched transactions so Hibernate can
+ * send them as JDBC batches. Invalid rows are collected in an {@link ImportReport}.
+ */
+@Service
+public class SaleImportService {
+
+    public static final List<String> CSV_COLUMNS =
+            List.of("name", "itemType", "salesAmount", "transactionCode", "transactionDate"); // Expected CSV header
+
+    @PersistenceContext
+    private EntityManager entityManager; // Persistence context used to persist and clear each batch
+
+    @Autowired
+    private TransactionTemplate transactionTemplate; // One transaction per batch
+
+    @Autowired
+    private SalesRollup salesRollup; // In-memory aggregates updated after each committed batch
+
+    @Autowired
+    private SaleFeed saleFeed; // Live feed told about each committed batch
+
+    @Autowired
+    private CacheManager cacheManager; // Report pages are evicted once new rows are committed
+
+    @Autowired
+    private TransactionCodeGenerator transactionCodeGenerator; // Assigns codes to rows imported without one
+
+    @Autowired
+    private ObjectMapper objectMapper; // JSON reader for JSON array and newline-delimited JSON uploads
+
+    @Value("${sales.import.batch-size:500}")
+    private int batchSize; // Rows stored per transaction
+
+    /**
+     * Imports sales from CSV. The first line must be a header naming the {@link #CSV_COLUMNS} in any order;
+     * fields may be quoted with double quotes.
+     *
+     * @param input the CSV content
+     * @return the import report
+     * @throws IOException if the input cannot be read
+     */
+    public ImportReport importCsv(InputStream input) throws IOException {
+        ImportReport report = new ImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return report; // Empty upload
+        }
+        List<String> names = splitCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0 && !"transactionCode".equals(CSV_COLUMNS.get(i))) {
+                report.addRejected(1, "missing column " + CSV_COLUMNS.get(i));
+                return report;
+            }
+        }
+
+        Batch batch = new Batch(report);
+        String line;
+        long lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Sale sale;
+            try {
+                sale = toSale(splitCsvLine(line), columns);
+            } catch (RuntimeException e) {
+                report.addRejected(lineNumber, "unreadable row: " + e.getMessage());
+                continue;
+            }
+            batch.offer(lineNumber, sale);
+        }
+        batch.flush();
+        return report;
+    }
+
+    /**
+     * Imports sales from JSON, either a single array of sale objects or newline-delimited objects.
+     * Unknown properties and any "id" in the input are ignored.
+     *
+     * @param input the JSON content
+     * @return the import report
+     * @throws IOException if the input cannot be read
+     */
+    public ImportReport importJson(InputStream input) throws IOException {
+        ImportReport report = new ImportReport();
+        Batch batch = new Batch(report);
+        try (MappingIterator<Sale> rows = objectMapper.readerFor(Sale.class).readValues(input)) {
+            long record = 0;
+            while (true) {
+                record++;
+                Sale sale;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    sale = rows.nextValue();
+                } catch (JsonParseException e) {
+                    report.addRejected(record, "malformed JSON, import stopped: " + e.getOriginalMessage());
+                    break; // Syntax errors cannot be skipped reliably
+                } catch (JsonMappingException e) {
+                    report.addRejected(record, "unreadable record: " + e.getOriginalMessage());
+                    continue; // The iterator skips to the next record
+                }
+                sale.setId(null);
+                sale.setVersion(null); // Imported rows are always new records
+                batch.offer(record, sale);
+            }
+        }
+        batch.flush();
+        return report;
+    }
+
+    /**
+     * Stores sales that are already in memory, with the same validation and batching as a file import.
+     * Rows are numbered from 1 in the report.
+     *
+     * @param sales the sales to store
+     * @return the import report
+     */
+    public ImportReport importSales(List<Sale> sales) {
+        return importSales(sales, false);
+    }
+
+    /**
+     * Stores sales like {@link #importSales(List)}, but fails instead of rejecting rows when the database itself
+     * fails (unreachable, out of connections, timing out), so the caller can retry the same sales later.
+     * Only rows refused for their data, such as a duplicate transaction code, are reported as rejected.
+     * Rows stored before the failure stay stored; retried, they are rejected as duplicates of themselves.
+     *
+     * @param sales the sales to store
+     * @return the import report
+     * @throws RuntimeException the database failure, if the sales could not all be stored or rejected
+     */
+    public ImportReport storeSales(List<Sale> sales) {
+        return importSales(sales, true);
+    }
+
+    /**
+     * Validates and stores sales in batches, numbering them from 1 in the report.
+     */
+    private ImportReport importSales(List<Sale> sales, boolean throwDatabaseFailures) {
+        ImportReport report = new ImportReport();
+        Batch batch = new Batch(report, throwDatabaseFailures);
+        long row = 0;
+        for (Sale sale : sales) {
+            batch.offer(++row, sale);
+        }
+        batch.flush();
+        return report;
+    }
+
+    /**
+     * Builds a sale from the fields of a CSV row.
+     */
+    private Sale toSale(List<String> fields, int[] columns) {
+        Sale sale = new Sale();
+        sale.setName(field(fields, columns[0]));
+        sale.setItemType(field(fields, columns[1]));
+        String amount = field(fields, columns[2]);
+        sale.setSalesAmount(amount == null ? null : new BigDecimal(amount)); // Exact: no binary floating point on the way
+        sale.setTransactionCode(field(fields, columns[3]));
+        String date = field(fields, columns[4]);
+        sale.setTransactionDate(date == null ? null : LocalDate.parse(date));
+        return sale;
+    }
+
+    /**
+     * Returns a trimmed CSV field, or null when it is absent or empty.
+     */
+    private String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV line into fields, honouring double-quoted fields and doubled quotes inside them.
+     *
+     * @param line the CSV line
+     * @return the fields of the line
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"') {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Buffers valid rows and stores them a batch at a time.
+     */
+    private final class Batch {
+        private final ImportReport report; // Report receiving the outcome of each row
+        private final boolean throwDatabaseFailures; // Whether failures of the database itself are thrown instead of rejecting rows
+        private final List<Sale> sales = new ArrayList<>(); // Rows waiting to be stored
+        private final List<Long> lines = new ArrayList<>(); // Line numbers of the waiting rows
+
+        private Batch(ImportReport report) {
+            this(report, false);
+        }
+
+        private Batch(ImportReport report, boolean throwDatabaseFailures) {
+            this.report = report;
+            this.throwDatabaseFailures = throwDatabaseFailures;
+        }
+
+        /**
+         * Validates a row and queues it, storing the batch once it is full.
+         */
+        private void offer(long line, Sale sale) {
+            String problem = SaleValidator.validate(sale);
+            if (problem != null) {
+                report.addRejected(line, problem);
+                return;
+            }
+            if (sale.getTransactionCode() == null || sale.getTransactionCode().isBlank()) {
+                sale.setTransactionCode(transactionCodeGenerator.next());
+            }
+            sales.add(sale);
+            lines.add(line);
+            if (sales.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Stores the queued rows in one transaction. If the batch fails, its rows are retried one by one
+         * so only the offending rows are rejected. When database failures are thrown, a failure of the
+         * database itself ends the flush instead.
+         */
+        private void flush() {
+            if (sales.isEmpty()) {
+                return;
+            }
+            try {
+                store(sales);
+                report.addAccepted(sales.size());
+            } catch (RuntimeException batchFailure) {
+                for (Sale sale : sales) {
+                    sale.setId(null); // Discard the ID and version assigned by the failed attempt
+                    sale.setVersion(null);
+                }
+                throwIfDatabaseFailure(batchFailure);
+                for (int i = 0; i < sales.size(); i++) {
+                    Sale sale = sales.get(i);
+                    try {
+                        store(List.of(sale));
+                        report.addAccepted(1);
+                    } catch (RuntimeException rowFailure) {
+                        sale.setId(null);
+                        sale.setVersion(null);
+                        throwIfDatabaseFailure(rowFailure);
+                        report.addRejected(lines.get(i), "rejected by the database: " + rootMessage(rowFailure));
+                    }
+                }
+            } finally {
+                sales.clear();
+                lines.clear();
+            }
+        }
+
+        /**
+         * Persists sales in a single transaction and clears the persistence context so memory stays flat.
+         * Once committed, the batch is added to the rollup and published to the live feed.
+         */
+        private void store(List<Sale> batch) {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<SalesRollup.Entry> entries = new ArrayList<>(batch.size());
+                List<SaleFeed.Change> changes = new ArrayList<>(batch.size());
+                for (Sale sale : batch) {
+                    entityManager.persist(sale);
+                    entries.add(salesRollup.entryOf(sale));
+                    changes.add(SaleFeed.Change.created(sale));
+                }
+                entityManager.flush();
+                entityManager.clear();
+                salesRollup.afterCommit(() -> {
+                    entries.forEach(salesRollup::add);
+                    saleFeed.publish(changes);
+                });
+                Cache pages = cacheManager.getCache(CacheConfig.SALE_PAGES_CACHE);
+                if (pages != null) {
+                    pages.clear(); // Transaction-aware: takes effect on commit
+                }
+            });
+        }
+
+        /**
+         * Rethrows a failure of the database itself, rather than of the rows stored, when such failures are thrown:
+         * one Spring classifies as transient or as a resource failure, or one caused by a lost or refused connection.
+         */
+        private void throwIfDatabaseFailure(RuntimeException failure) {
+            if (!throwDatabaseFailures) {
+                return;
+            }
+            for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+                if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                        || cause instanceof DataAccessResourceFailureException || cause instanceof CannotCreateTransactionException
+                        || cause instanceof SQLTransientException || cause instanceof SQLRecoverableException
+                        || cause instanceof SQLNonTransientConnectionException) {
+                    throw failure;
+                }
+            }
+        }
+
+        /**
+         * Returns the message of the innermost cause of a failure.
+         */
+        private String rootMessage(Throwable failure) {
+            Throwable cause = failure;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            return cause.getMessage();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Entities.Sale;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One keyset page of the sales report.
+ * Holds the sales on the page together with the sort order and the key of the last row,
+ * which the next page request passes back to seek past it.
+ */
+public class SalePage {
+
+    public static final String SORT_BY_ID = "id"; // Order the report by sale ID
+    public static final String SORT_BY_DATE = "date"; // Order the report by transaction date, ties broken by ID
+
+    private final List<Sale> sales; // Sales on this page
+    private final String sort; // Sort field used for this page
+    private final boolean ascending; // Sort direction used for this page
+    private final int size; // Requested page size
+    private final boolean hasNext; // Whether another page follows this one
+
+    public SalePage(List<Sale> sales, String sort, boolean ascending, int size, boolean hasNext) {
+        this.sales = sales;
+        this.sort = sort;
+        this.ascending = ascending;
+        this.size = size;
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * Gets the sales on this page.
+     * @return the sales, in report order
+     */
+    public List<Sale> getSales() {
+        return sales;
+    }
+
+    /**
+     * Gets the sort field used for this page.
+     * @return either {@link #SORT_BY_ID} or {@link #SORT_BY_DATE}
+     */
+    public String getSort() {
+        return sort;
+    }
+
+    /**
+     * Tells whether the page is sorted in ascending order.
+     * @return true for ascending, false for descending
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Gets the requested page size.
+     * @return the page size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Tells whether another page follows this one.
+     * @return true if there is a next page
+     */
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Gets the ID of the last sale on this page, to be passed back as the keyset for the next page.
+     * @return the last ID, or null if the page is empty
+     */
+    public Long getNextAfterId() {
+        return sales.isEmpty() ? null : sales.get(sales.size() - 1).getId();
+    }
+
+    /**
+     * Gets the transaction date of the last sale on this page, to be passed back as the keyset for the next page.
+     * @return the last transaction date, or null if the page is empty
+     */
+    public LocalDate getNextAfterDate() {
+        return sales.isEmpty() ? null : sales.get(sales.size() - 1).getTransactionDate();
+    }
+}
@@ -1,62 +1,683 @@
 package com.example.finalexam.Services;
 
+import com.example.finalexam.Config.CacheConfig;
+import com.example.finalexam.Entities.ArchivedSale;
 import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
+import com.example.finalexam.Repositories.RollupTotals;
 import com.example.finalexam.Repositories.SaleRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.criteria.Path;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Service class for managing sales data.
  * Handles business logic and interacts with the SaleRepository.
+ * Sales of closed periods live in the archive (see SaleArchiveService); reads cover both tables
+ * but skip the archive whenever the archive watermark shows it cannot hold a matching row.
+ * Reads run in read-only transactions, which use the read replica when one is configured (see Config/ReplicaConfig);
+ * a client that just wrote keeps reading from the primary until the replica has caught up.
+ * Every public method is timed as sales.service, tagged with the method name.
  */
 @Service
+@Timed(value = "sales.service", description = "Time spent in SaleService methods")
 public class SaleService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20; // Number of sales shown per report page by default
+    public static final int MAX_PAGE_SIZE = 100; // Upper bound on a report page, keeping each request bounded
+    public static final int MAX_IDS_PER_STATEMENT = 1000; // IDs bound into one IN list by the bulk deletes
+    public static final String DUPLICATES_METRIC = "sales.duplicates"; // Resubmitted sales answered without inserting
+    public static final String ROWS_METRIC = "sales.report.rows"; // Distribution of rows returned by report queries
+
     @Autowired
     private SaleRepository saleRepository; // Repository for accessing sale data
 
+    @Autowired
+    private ArchivedSaleRepository archivedSaleRepository; // Sales of closed periods
+
+    @Autowired
+    private SaleArchiveService saleArchiveService; // Knows which dates may be archived
+
+    @Autowired
+    private SalesRollup salesRollup; // In-memory aggregates updated on every write
+
+    @Autowired
+    private SaleFeed saleFeed; // Live feed told about every committed change
+
+    @Autowired
+    private RecentSaleCodes recentSaleCodes; // Recently created sales by code, for deduplicating resubmissions
+
+    @Autowired
+    private TransactionCodeGenerator transactionCodeGenerator; // Assigns codes to sales submitted without one
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry receiving the report row counts
+
+    @Autowired
+    private CacheManager cacheManager; // Cached sales are the snapshots partial updates are compared against
+
     /**
      * Saves a sale record to the database.
      * If the sale record already exists (based on its ID), it will be updated.
      * Otherwise, a new record will be created.
+     * The sales rollup is adjusted once the transaction commits: an update moves the previous
+     * amount out of its old group and the new amount into its (possibly different) new group.
+     * The cached copy of the sale and all cached report pages are evicted on commit,
+     * and the change is published to the live sales feed.
+     * A sale without a transaction code is given one before it is stored, and a new sale whose
+     * code was already stored is not inserted again: the stored sale is returned instead.
+     * Updating an archived sale moves it back into the Sale table first.
+     * Updates are optimistic: a sale carrying the version it was read at is only written if the stored
+     * sale still has that version, and only its changed columns are written. When the sale is cached at
+     * that version (as it is after the edit form or the REST API read it), the update is a single
+     * UPDATE statement and the row is not read again.
      *
      * @param sale the Sale entity to be saved
      * @return the saved Sale entity
+     * @throws ObjectOptimisticLockingFailureException if the sale was changed since the version it carries
      */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SALES_CACHE, key = "#sale.id", condition = "#sale.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.SALE_PAGES_CACHE, allEntries = true)
+    })
     public Sale saveSale(Sale sale) {
-        return saleRepository.save(sale);
+        if (sale.getId() != null && sale.getVersion() != null) {
+            Sale updated = updateInPlace(sale);
+            if (updated != null) {
+                return updated;
+            }
+        }
+        Sale existing = sale.getId() == null ? null : saleRepository.findById(sale.getId())
+                .or(() -> unarchive(sale.getId()))
+                .orElse(null); // Loads the row the merge below would read anyway, before it is overwritten
+        if (sale.getTransactionCode() == null || sale.getTransactionCode().isBlank()) {
+            sale.setTransactionCode(existing != null && existing.getTransactionCode() != null
+                    ? existing.getTransactionCode() // Updates without a code keep the stored one
+                    : transactionCodeGenerator.next());
+        }
+        if (sale.getId() == null) {
+            return create(sale);
+        }
+        return store(sale, existing);
     }
 
     /**
-     * Retrieves all sale records from the database.
+     * Saves many sales in one transaction, new and changed ones mixed.
+     * The stored rows of the changed sales are read with one query instead of one each. The new sales are
+     * flushed together, so Hibernate sends their inserts as JDBC batches (hibernate.order_inserts), and the
+     * changed sales are written whole, as one batch of identical UPDATEs (see SaleRepository#updateAllInBatch);
+     * the dynamic UPDATE of {@link #saveSale}, which lists only changed columns, cannot be batched.
+     * Changed sales are checked against the versions they carry, and codes are assigned, as in {@link #saveSale};
+     * archived sales are moved back into the Sale table first. A new sale whose code is already stored, or
+     * appears earlier in the list, is not inserted again: the sale stored for that code is returned in its place.
+     * The rollup, the live feed and the caches are updated on commit, as for single saves.
+     * For files or streams of new sales use SaleImportService, which commits in batches.
+     *
+     * @param sales the sales to save
+     * @return the saved sales, in the order given
+     * @throws ObjectOptimisticLockingFailureException if a sale was changed since the version it carries;
+     * nothing is saved
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.SALE_PAGES_CACHE, allEntries = true)
+    public List<Sale> saveSales(List<Sale> sales) {
+        List<Long> ids = sales.stream().map(Sale::getId).filter(Objects::nonNull).toList();
+        Map<Long, Sale> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            saleRepository.findAllById(ids).forEach(stored -> existing.put(stored.getId(), stored));
+            for (Long id : ids) {
+                if (!existing.containsKey(id)) {
+                    unarchive(id).ifPresent(stored -> existing.put(id, stored));
+                }
+            }
+        }
+        List<String> codes = sales.stream().filter(sale -> sale.getId() == null)
+                .map(Sale::getTransactionCode).filter(code -> code != null && !code.isBlank()).toList();
+        Map<String, Sale> storedByCode = new HashMap<>();
+        if (!codes.isEmpty()) {
+            saleRepository.findByTransactionCodeIn(codes).forEach(stored -> storedByCode.put(stored.getTransactionCode(), stored));
+            archivedSaleRepository.findByTransactionCodeIn(codes)
+                    .forEach(stored -> storedByCode.put(stored.getTransactionCode(), stored.toSale()));
+        }
+
+        Sale[] result = new Sale[sales.size()];
+        List<Sale> toSave = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>(); // Position in the result of each sale in toSave
+        List<SalesRollup.Entry> previous = new ArrayList<>(); // Rollup entry replaced by each sale in toSave
+        for (int i = 0; i < sales.size(); i++) {
+            Sale sale = sales.get(i);
+            Sale current = sale.getId() == null ? null : existing.get(sale.getId());
+            if (sale.getTransactionCode() == null || sale.getTransactionCode().isBlank()) {
+                sale.setTransactionCode(current != null && current.getTransactionCode() != null
+                        ? current.getTransactionCode() // Updates without a code keep the stored one
+                        : transactionCodeGenerator.next());
+            } else if (sale.getId() == null) {
+                Sale earlier = storedByCode.putIfAbsent(sale.getTransactionCode(), sale);
+                if (earlier != null) {
+                    result[i] = duplicate(earlier);
+                    continue;
+                }
+            }
+            if (current != null && sale.getVersion() == null) {
+                sale.setVersion(current.getVersion()); // Callers that do not track versions update the current row
+            } else if (current != null && !sale.getVersion().equals(current.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Sale.class, sale.getId());
+            }
+            previous.add(current == null ? null : salesRollup.entryOf(current));
+            positions.add(i);
+            toSave.add(sale);
+        }
+
+        List<Sale> inserts = new ArrayList<>();
+        List<Sale> updates = new ArrayList<>();
+        for (int k = 0; k < toSave.size(); k++) {
+            (previous.get(k) == null ? inserts : updates).add(toSave.get(k));
+        }
+        List<Sale> inserted = saleRepository.saveAll(inserts);
+        if (!updates.isEmpty()) {
+            saleRepository.updateAllInBatch(updates, Instant.now());
+        }
+        for (int k = 0, n = 0; k < toSave.size(); k++) {
+            if (previous.get(k) == null) {
+                toSave.set(k, inserted.get(n++)); // A sale with an unknown ID is inserted as a copy
+            }
+        }
+        List<SalesRollup.Entry> entries = new ArrayList<>(toSave.size());
+        List<SaleFeed.Change> changes = new ArrayList<>(toSave.size());
+        Cache cache = cacheManager.getCache(CacheConfig.SALES_CACHE);
+        for (int k = 0; k < toSave.size(); k++) {
+            Sale stored = toSave.get(k);
+            result[positions.get(k)] = stored;
+            entries.add(salesRollup.entryOf(stored));
+            changes.add(previous.get(k) == null ? SaleFeed.Change.created(stored) : SaleFeed.Change.updated(stored));
+            if (cache != null && previous.get(k) != null) {
+                cache.evict(stored.getId()); // Transaction-aware: takes effect on commit
+            }
+        }
+        salesRollup.afterCommit(() -> {
+            for (int k = 0; k < entries.size(); k++) {
+                if (previous.get(k) != null) {
+                    salesRollup.remove(previous.get(k));
+                }
+                salesRollup.add(entries.get(k));
+            }
+            saleFeed.publish(changes);
+        });
+        return List.of(result);
+    }
+
+    /**
+     * Creates a sale at most once per transaction code.
+     * The code is claimed in the recent-codes record first: a resubmission gets the sale stored by the
+     * first submission, without touching the database if that was recent, and a duplicate arriving
+     * while the first is still in flight waits for it to commit. Only submissions of the same code
+     * wait on each other. On a miss the unique index is checked with one lookup by code.
+     */
+    private Sale create(Sale sale) {
+        String code = sale.getTransactionCode();
+        RecentSaleCodes.Pending pending = new RecentSaleCodes.Pending();
+        CompletableFuture<Sale> earlier;
+        while ((earlier = recentSaleCodes.claim(code, pending)) != null) {
+            if (earlier instanceof RecentSaleCodes.Pending inFlight && inFlight.isOwnedByCurrentThread()) {
+                return duplicate(inFlight.getStored()); // Same code twice in one transaction
+            }
+            try {
+                return duplicate(earlier.join());
+            } catch (CompletionException | CancellationException e) {
+                // The earlier submission failed and gave up the code: claim it again
+            }
+        }
+
+        try {
+            Sale stored = saleRepository.findByTransactionCode(code)
+                    .or(() -> archivedSaleRepository.findByTransactionCode(code).map(ArchivedSale::toSale))
+                    .orElse(null);
+            if (stored != null) {
+                pending.complete(stored.copy()); // Created before the record's window, or by another instance
+                return duplicate(stored);
+            }
+            Sale saved = store(sale, null);
+            pending.setStored(saved);
+            afterCompletion(committed -> {
+                if (committed) {
+                    pending.complete(saved.copy()); // A snapshot the caller's later changes do not reach
+                } else {
+                    recentSaleCodes.release(code, pending);
+                    pending.completeExceptionally(new IllegalStateException("sale " + code + " was rolled back"));
+                }
+            });
+            return saved;
+        } catch (RuntimeException e) {
+            recentSaleCodes.release(code, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Updates a sale with one UPDATE of its changed columns, checked against the version the caller read.
+     * The cached copy of the sale at that version is what is stored until the UPDATE, so it is both the
+     * base the changes are found against and the rollup entry to move; the row is not read again.
+     * Returns null to fall back to loading the row: on a cache miss or a different cached version,
+     * when the caller changed the cached instance itself, or when the UPDATE matched nothing
+     * because the sale was changed, archived or deleted since.
+     */
+    private Sale updateInPlace(Sale sale) {
+        Cache cache = cacheManager.getCache(CacheConfig.SALES_CACHE);
+        Sale previous = cache == null ? null : cache.get(sale.getId(), Sale.class);
+        if (previous == null || previous == sale || !sale.getVersion().equals(previous.getVersion())) {
+            return null;
+        }
+        if (sale.getTransactionCode() == null || sale.getTransactionCode().isBlank()) {
+            sale.setTransactionCode(previous.getTransactionCode()); // Updates without a code keep the stored one
+        }
+        Instant now = Instant.now();
+        if (saleRepository.updateChanged(previous, sale, now) == 0) {
+            return null;
+        }
+        sale.setVersion(sale.getVersion() + 1);
+        sale.setUpdatedAt(now);
+        afterStore(salesRollup.entryOf(previous), sale);
+        return sale;
+    }
+
+    /**
+     * Moves an archived sale back into the Sale table, keeping its ID and code, so it can be updated.
+     * The next archival run archives it again if it still belongs to a closed period.
+     */
+    private Optional<Sale> unarchive(Long id) {
+        if (archivedSaleRepository.copyToSales(id, Instant.now()) == 0) {
+            return Optional.empty();
+        }
+        archivedSaleRepository.deleteById(id);
+        return saleRepository.findById(id);
+    }
+
+    /**
+     * Counts a duplicate submission and returns a copy of the sale stored for it.
+     * The stored instance is shared by every resubmission of the code, so none of them gets it itself.
+     */
+    private Sale duplicate(Sale stored) {
+        meterRegistry.counter(DUPLICATES_METRIC).increment();
+        return stored.copy();
+    }
+
+    /**
+     * Stores a new or changed sale. A changed sale read at an older version than the stored one is refused.
+     */
+    private Sale store(Sale sale, Sale existing) {
+        SalesRollup.Entry previous = existing == null ? null : salesRollup.entryOf(existing);
+        if (existing != null && sale.getVersion() == null) {
+            sale.setVersion(existing.getVersion()); // Callers that do not track versions update the current row
+        } else if (existing != null && !sale.getVersion().equals(existing.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Sale.class, sale.getId());
+        }
+        Sale saved = saleRepository.save(sale);
+        afterStore(previous, saved);
+        return saved;
+    }
+
+    /**
+     * Once the transaction commits, moves a stored sale's amount in the rollup from its previous
+     * group (none for a new sale) to its current one, and publishes the change to the live feed.
+     */
+    private void afterStore(SalesRollup.Entry previous, Sale saved) {
+        SalesRollup.Entry current = salesRollup.entryOf(saved);
+        salesRollup.afterCommit(() -> {
+            if (previous != null) {
+                salesRollup.remove(previous);
+            }
+            salesRollup.add(current);
+            saleFeed.publish(List.of(previous == null ? SaleFeed.Change.created(saved) : SaleFeed.Change.updated(saved)));
+        });
+    }
+
+    /**
+     * Runs an action once the current transaction completes, with whether it committed,
+     * or immediately as committed when there is no transaction.
+     */
+    private void afterCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+
+    /**
+     * Retrieves all sale records from the database, archived ones included.
+     * Loads both tables into memory; prefer {@link #getSalesPage} for anything user-facing.
      *
      * @return a list of all Sale entities
      */
+    @Transactional(readOnly = true)
     public List<Sale> getAllSales() {
-        return saleRepository.findAll();
+        List<Sale> sales = new ArrayList<>(saleRepository.findAll());
+        for (ArchivedSale archived : archivedSaleRepository.findAll()) {
+            sales.add(archived.toSale());
+        }
+        meterRegistry.summary(ROWS_METRIC, "query", "all").record(sales.size());
+        return sales;
+    }
+
+    /**
+     * Retrieves one page of the sales report using keyset pagination.
+     * Instead of an offset, the page seeks past the key of the last row of the previous page,
+     * so every page costs the same no matter how deep into the table it is.
+     * Sales without a transaction date only appear when sorting by ID.
+     * Pages are cached by their paging parameters until the next write.
+     *
+     * @param sort the sort field, either {@link SalePage#SORT_BY_ID} or {@link SalePage#SORT_BY_DATE}
+     * @param ascending true to sort in ascending order, false for descending
+     * @param afterId the ID of the last sale on the previous page, or null for the first page
+     * @param afterDate the transaction date of the last sale on the previous page (date sort only)
+     * @param size the requested page size, clamped to [1, {@link #MAX_PAGE_SIZE}]
+     * @return the requested page of sales
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SALE_PAGES_CACHE)
+    public SalePage getSalesPage(String sort, boolean ascending, Long afterId, LocalDate afterDate, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String sortField = SalePage.SORT_BY_ID.equals(sort) ? SalePage.SORT_BY_ID : SalePage.SORT_BY_DATE;
+        Limit limit = Limit.of(pageSize + 1); // Fetch one extra row to know whether a next page exists
+
+        List<Sale> sales;
+        if (SalePage.SORT_BY_ID.equals(sortField)) {
+            sales = ascending
+                    ? saleRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, limit)
+                    : saleRepository.findByIdLessThanOrderByIdDesc(afterId == null ? Long.MAX_VALUE : afterId, limit);
+        } else if (afterId == null || afterDate == null) {
+            sales = ascending
+                    ? saleRepository.findByTransactionDateNotNullOrderByTransactionDateAscIdAsc(limit)
+                    : saleRepository.findByTransactionDateNotNullOrderByTransactionDateDescIdDesc(limit);
+        } else {
+            sales = ascending
+                    ? saleRepository.findPageAfter(afterDate, afterId, limit)
+                    : saleRepository.findPageBefore(afterDate, afterId, limit);
+        }
+        return toPage(withArchive(sales, null, sortField, ascending, afterId, afterDate, pageSize), sortField, ascending, pageSize);
+    }
+
+    /**
+     * Retrieves one keyset page of the sales report restricted by a filter.
+     * The filter criteria and the seek past the previous page are combined into one query,
+     * so the database can answer it from the matching index instead of scanning the table.
+     * Without criteria this is the same as the unfiltered report.
+     *
+     * @param filter the filter criteria, or null for none
+     * @param sort the sort field, either {@link SalePage#SORT_BY_ID} or {@link SalePage#SORT_BY_DATE}
+     * @param ascending true to sort in ascending order, false for descending
+     * @param afterId the ID of the last sale on the previous page, or null for the first page
+     * @param afterDate the transaction date of the last sale on the previous page (date sort only)
+     * @param size the requested page size, clamped to [1, {@link #MAX_PAGE_SIZE}]
+     * @return the requested page of matching sales
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SALE_PAGES_CACHE)
+    public SalePage getSalesPage(SaleFilter filter, String sort, boolean ascending, Long afterId, LocalDate afterDate, int size) {
+        if (filter == null || filter.isEmpty()) {
+            return getSalesPage(sort, ascending, afterId, afterDate, size);
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String sortField = SalePage.SORT_BY_ID.equals(sort) ? SalePage.SORT_BY_ID : SalePage.SORT_BY_DATE;
+        Specification<Sale> query = filter.<Sale>toSpecification().and(seek(sortField, ascending, afterId, afterDate));
+        List<Sale> sales = saleRepository.findBy(query, q -> q.sortBy(order(sortField, ascending)).limit(pageSize + 1).all());
+        return toPage(withArchive(sales, filter, sortField, ascending, afterId, afterDate, pageSize), sortField, ascending, pageSize);
+    }
+
+    /**
+     * Merges the matching archived sales into a keyset page read from the Sale table.
+     * The archive is only queried when it can hold rows of the page: not when nothing is archived,
+     * when the filter starts on or after the watermark, or, sorting by date, when the page lies
+     * entirely after the archived dates. The default report (newest first) therefore only touches
+     * the archive once it pages back past the watermark.
+     */
+    private List<Sale> withArchive(List<Sale> sales, SaleFilter filter, String sortField, boolean ascending,
+                                   Long afterId, LocalDate afterDate, int pageSize) {
+        LocalDate watermark = saleArchiveService.getWatermark();
+        if (watermark == null || filter != null && filter.getFromDate() != null && !filter.getFromDate().isBefore(watermark)) {
+            return sales;
+        }
+        if (SalePage.SORT_BY_DATE.equals(sortField)) {
+            if (ascending && afterId != null && afterDate != null && !afterDate.isBefore(watermark)) {
+                return sales; // Already paged past every archived date
+            }
+            if (!ascending && sales.size() > pageSize && !sales.get(pageSize).getTransactionDate().isBefore(watermark)) {
+                return sales; // The page and its look-ahead row all sort before any archived sale
+            }
+        }
+        Specification<ArchivedSale> criteria = filter == null ? Specification.where(null) : filter.toSpecification();
+        List<ArchivedSale> archived = archivedSaleRepository.findBy(criteria.and(seek(sortField, ascending, afterId, afterDate)),
+                q -> q.sortBy(order(sortField, ascending)).limit(pageSize + 1).all());
+        if (archived.isEmpty()) {
+            return sales;
+        }
+        List<Sale> merged = new ArrayList<>(sales.size() + archived.size());
+        merged.addAll(sales);
+        for (ArchivedSale sale : archived) {
+            merged.add(sale.toSale());
+        }
+        Comparator<Sale> order = SalePage.SORT_BY_ID.equals(sortField)
+                ? Comparator.comparing(Sale::getId)
+                : Comparator.comparing(Sale::getTransactionDate).thenComparing(Sale::getId);
+        merged.sort(ascending ? order : order.reversed());
+        return merged.size() > pageSize + 1 ? merged.subList(0, pageSize + 1) : merged;
+    }
+
+    /**
+     * Builds the sort order of a keyset page.
+     */
+    private Sort order(String sortField, boolean ascending) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return SalePage.SORT_BY_ID.equals(sortField)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, "transactionDate", "id");
+    }
+
+    /**
+     * Builds the keyset condition that skips the rows of the previous pages, for either table.
+     */
+    private <T> Specification<T> seek(String sortField, boolean ascending, Long afterId, LocalDate afterDate) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            if (SalePage.SORT_BY_ID.equals(sortField)) {
+                return afterId == null ? null : ascending ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+            }
+            Path<LocalDate> date = root.get("transactionDate");
+            if (afterId == null || afterDate == null) {
+                return cb.isNotNull(date);
+            }
+            return ascending
+                    ? cb.or(cb.greaterThan(date, afterDate), cb.and(cb.equal(date, afterDate), cb.greaterThan(id, afterId)))
+                    : cb.or(cb.lessThan(date, afterDate), cb.and(cb.equal(date, afterDate), cb.lessThan(id, afterId)));
+        };
+    }
+
+    /**
+     * Trims the extra look-ahead row off a keyset query result and wraps it as a page.
+     */
+    private SalePage toPage(List<Sale> sales, String sortField, boolean ascending, int pageSize) {
+        meterRegistry.summary(ROWS_METRIC, "query", "page").record(sales.size());
+        boolean hasNext = sales.size() > pageSize;
+        List<Sale> pageSales = hasNext ? List.copyOf(sales.subList(0, pageSize)) : sales;
+        return new SalePage(pageSales, sortField, ascending, pageSize, hasNext);
     }
 
     /**
      * Retrieves a sale record by its ID.
      * If no sale with the given ID is found, returns null.
+     * Falls back to the archive when the sale is not in the Sale table.
+     * Found sales are cached until they are saved or deleted; misses are not cached.
      *
      * @param id the ID of the Sale entity to retrieve
      * @return the Sale entity with the given ID, or null if not found
      */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SALES_CACHE, key = "#id", unless = "#result == null")
     public Sale getSaleById(Long id) {
-        Optional<Sale> sale = saleRepository.findById(id);
+        Optional<Sale> sale = saleRepository.findById(id)
+                .or(() -> archivedSaleRepository.findById(id).map(ArchivedSale::toSale));
         return sale.orElse(null); // Return the sale if present, otherwise return null
     }
 
     /**
      * Deletes a sale record by its ID.
      *
+     * Archived sales are deleted from the archive.
+     * Its contribution is removed from the sales rollup and the deletion is published to the
+     * live feed once the transaction commits, and its cached copy and all cached report pages are evicted.
+     *
      * @param id the ID of the Sale entity to delete
      */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SALES_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.SALE_PAGES_CACHE, allEntries = true)
+    })
     public void deleteSaleById(Long id) {
-        saleRepository.deleteById(id);
+        SalesRollup.Entry removed = saleRepository.findById(id).map(salesRollup::entryOf)
+                .or(() -> deleteArchived(id))
+                .orElse(null);
+        saleRepository.deleteById(id); // Reuses the entity loaded above from the persistence context
+        if (removed != null) {
+            salesRollup.afterCommit(() -> {
+                salesRollup.remove(removed);
+                saleFeed.publish(List.of(SaleFeed.Change.deleted(id)));
+            });
+        }
+    }
+
+    /**
+     * Deletes many sales by ID with set-based statements instead of loading and removing each sale.
+     * Per {@link #MAX_IDS_PER_STATEMENT} IDs, the rows are locked with one UPDATE (so concurrent edits of them
+     * fail their version check), their rollup totals are read with one grouped query, and they are removed with
+     * one DELETE; the archive is only queried for IDs not found in the Sale table.
+     * The rollup, the live feed and the caches are updated on commit, as for single deletes.
+     *
+     * @param ids the IDs of the sales to delete; unknown IDs are ignored
+     * @return the number of sales deleted
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.SALE_PAGES_CACHE, allEntries = true)
+    public int deleteSalesByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int start = 0; start < distinct.size(); start += MAX_IDS_PER_STATEMENT) {
+            List<Long> chunk = distinct.subList(start, Math.min(distinct.size(), start + MAX_IDS_PER_STATEMENT));
+            List<Long> found = new ArrayList<>();
+            List<RollupTotals> totals = new ArrayList<>();
+            int locked = saleRepository.lockByIds(chunk);
+            if (locked > 0) {
+                found.addAll(locked == chunk.size() ? chunk : saleRepository.findIdsByIds(chunk));
+                totals.addAll(saleRepository.sumByItemTypeSalesmanAndDayForIds(chunk));
+                deleted += saleRepository.deleteByIdsInBatch(chunk);
+            }
+            if (locked < chunk.size() && saleArchiveService.getWatermark() != null) {
+                found.addAll(archivedSaleRepository.findIdsByIds(chunk));
+                totals.addAll(archivedSaleRepository.sumByItemTypeSalesmanAndDayForIds(chunk));
+                deleted += archivedSaleRepository.deleteByIdsInBatch(chunk);
+            }
+            afterDelete(found, totals);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes every sale of a date range with set-based statements, archived ones included.
+     * The rows are locked with one UPDATE, their IDs and rollup totals are read with two queries, and they are
+     * removed with one DELETE; the archive is only queried when the range reaches back before the watermark.
+     * Cleaning up or reprocessing a day or a month therefore costs a handful of statements, whatever its size.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return the number of sales deleted
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.SALE_PAGES_CACHE, allEntries = true)
+    public int deleteSalesBetween(LocalDate from, LocalDate to) {
+        List<Long> found = new ArrayList<>();
+        List<RollupTotals> totals = new ArrayList<>();
+        int deleted = 0;
+        if (saleRepository.lockBetween(from, to) > 0) {
+            found.addAll(saleRepository.findIdsBetween(from, to));
+            totals.addAll(saleRepository.sumByItemTypeSalesmanAndDayBetween(from, to));
+            deleted += saleRepository.deleteBetweenInBatch(from, to);
+        }
+        LocalDate watermark = saleArchiveService.getWatermark();
+        if (watermark != null && from.isBefore(watermark)) {
+            found.addAll(archivedSaleRepository.findIdsBetween(from, to));
+            totals.addAll(archivedSaleRepository.sumByItemTypeSalesmanAndDayBetween(from, to));
+            deleted += archivedSaleRepository.deleteBetweenInBatch(from, to);
+        }
+        afterDelete(found, totals);
+        return deleted;
+    }
+
+    /**
+     * Evicts the cached copies of sales deleted in bulk and, once the transaction commits, takes their
+     * totals out of the rollup and publishes the deletions to the live feed.
+     */
+    private void afterDelete(List<Long> ids, List<RollupTotals> totals) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.SALES_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict); // Transaction-aware: takes effect on commit
+        }
+        List<SaleFeed.Change> changes = ids.stream().map(SaleFeed.Change::deleted).toList();
+        salesRollup.afterCommit(() -> {
+            salesRollup.removeAll(totals);
+            saleFeed.publish(changes);
+        });
+    }
+
+    /**
+     * Deletes a sale from the archive, if it is archived.
+     */
+    private Optional<SalesRollup.Entry> deleteArchived(Long id) {
+        return archivedSaleRepository.findById(id).map(archived -> {
+            archivedSaleRepository.delete(archived);
+            return salesRollup.entryOf(archived.toSale());
+        });
     }
 }
@@ -0,0 +1,42 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Entities.Money;
+import com.example.finalexam.Entities.Sale;
+
+/**
+ * Validation rules shared by every path that creates sales (the sales form and bulk imports).
+ */
+public final class SaleValidator {
+
+    private SaleValidator() {
+    }
+
+    /**
+     * Checks that a sale has a non-blank name and item type, a positive amount in the supported currency and a transaction date.
+     * Stricter than the original form check, which only rejected missing fields: names and item types of blanks
+     * only, and other currencies (see {@link Money}), are rejected too.
+     * Only {@link Money#DEFAULT_CURRENCY} is accepted, so every stored amount, and every total summed
+     * from them, is in the same currency.
+     *
+     * @param sale the sale to check
+     * @return a description of the first problem found, or null if the sale is valid
+     */
+    public static String validate(Sale sale) {
+        if (sale.getName() == null || sale.getName().isBlank()) {
+            return "name is required";
+        }
+        if (sale.getItemType() == null || sale.getItemType().isBlank()) {
+            return "itemType is required";
+        }
+        if (!Money.DEFAULT_CURRENCY.equals(sale.getCurrency())) {
+            return "currency must be " + Money.DEFAULT_CURRENCY;
+        }
+        if (sale.getSalesAmountCents() <= 0) {
+            return "salesAmount must be greater than zero";
+        }
+        if (sale.getTransactionDate() == null) {
+            return "transactionDate is required";
+        }
+        return null;
+    }
+}
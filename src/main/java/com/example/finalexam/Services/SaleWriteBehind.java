@@ -0,0 +1,376 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Entities.Sale;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind capture of new sales (sales.write-behind.enabled).
+ * A submitted sale is acknowledged once it is appended to a local journal file and queued in memory;
+ * a background writer drains the queue and stores sales in batched transactions through the bulk import.
+ * After each committed batch the writer records the last stored journal sequence in a checkpoint file,
+ * and once everything is stored the journal is truncated. On startup, journal entries past the checkpoint
+ * are stored before new sales are accepted, so a crash loses no acknowledged sale; entries stored just
+ * before a crash but not yet checkpointed are rejected on replay by the unique transaction code.
+ * The queue is bounded: when it stays full for the offer timeout, the sale is refused so the caller can retry.
+ */
+@Component
+public class SaleWriteBehind {
+
+    public static final String DEPTH_METRIC = "sales.write_behind.queue.depth"; // Sales accepted but not yet stored
+
+    private static final Logger log = LoggerFactory.getLogger(SaleWriteBehind.class);
+
+    @Autowired
+    private SaleImportService saleImportService; // Batched, validated storage used by the writer
+
+    @Autowired
+    private TransactionCodeGenerator transactionCodeGenerator; // Codes make journal replay idempotent
+
+    @Autowired
+    private ObjectMapper objectMapper; // Journal entry serialization
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Queue depth and throughput metrics
+
+    @Value("${sales.write-behind.enabled:false}")
+    private boolean enabled; // Whether /services/saveSale goes through the queue
+
+    @Value("${sales.write-behind.capacity:10000}")
+    private int capacity; // Maximum sales accepted but not yet stored
+
+    @Value("${sales.write-behind.batch-size:500}")
+    private int batchSize; // Maximum sales stored per transaction
+
+    @Value("${sales.write-behind.offer-timeout-ms:50}")
+    private long offerTimeoutMillis; // How long a submission waits for queue space before it is refused
+
+    @Value("${sales.write-behind.journal:data/write-behind.journal}")
+    private Path journalPath; // Append-only journal of accepted sales
+
+    @Value("${sales.write-behind.fsync:true}")
+    private boolean fsync; // Whether each append is forced to disk before it is acknowledged
+
+    /**
+     * One accepted sale with its journal sequence number.
+     */
+    public record JournalEntry(long seq, Sale sale) {
+    }
+
+    private final LinkedBlockingQueue<JournalEntry> queue = new LinkedBlockingQueue<>(); // Accepted, not yet stored
+    private final ReentrantLock journalLock = new ReentrantLock(); // Keeps journal order and queue order identical (no carrier pinning)
+    private Semaphore permits; // Free queue slots
+    private FileChannel journal; // Open journal file
+    private long lastSeq; // Sequence of the last appended entry (guarded by journalLock)
+    private volatile long checkpointSeq; // Sequence of the last stored entry
+    private volatile boolean running; // Whether the writer should keep draining
+    private Thread writer; // Background writer thread
+    private Counter accepted; // Sales acknowledged
+    private Counter refused; // Sales refused because the queue was full
+    private Counter written; // Sales stored by the writer
+
+    /**
+     * Replays the journal and starts the writer when write-behind is enabled.
+     *
+     * @throws IOException if the journal cannot be opened or read
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        permits = new Semaphore(capacity);
+        accepted = meterRegistry.counter("sales.write_behind.accepted");
+        refused = meterRegistry.counter("sales.write_behind.refused");
+        written = meterRegistry.counter("sales.write_behind.written");
+        Gauge.builder(DEPTH_METRIC, queue, LinkedBlockingQueue::size).register(meterRegistry);
+        Gauge.builder("sales.write_behind.queue.capacity", () -> capacity).register(meterRegistry);
+
+        if (journalPath.getParent() != null) {
+            Files.createDirectories(journalPath.getParent());
+        }
+        checkpointSeq = readCheckpoint();
+        lastSeq = checkpointSeq;
+        int replayed = recover();
+        if (replayed > 0) {
+            log.info("Stored {} journaled sales left over from the last run", replayed);
+        }
+        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        running = true;
+        writer = Thread.ofPlatform().name("sales-write-behind").daemon().start(this::drain);
+    }
+
+    /**
+     * Tells whether sales are captured through the write-behind queue.
+     * @return true if write-behind is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts a new sale: assigns its transaction code, journals it and queues it for storage.
+     *
+     * @param sale the validated new sale
+     * @return true once the sale is durably accepted, false if the queue stayed full (retry later)
+     * @throws InterruptedException if interrupted while waiting for queue space
+     */
+    public boolean submit(Sale sale) throws InterruptedException {
+        if (!permits.tryAcquire(offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            refused.increment();
+            return false;
+        }
+        try {
+            sale.setId(null);
+            sale.setVersion(null);
+            if (sale.getTransactionCode() == null || sale.getTransactionCode().isBlank()) {
+                sale.setTransactionCode(transactionCodeGenerator.next());
+            }
+            journalLock.lock();
+            try {
+                JournalEntry entry = new JournalEntry(lastSeq + 1, sale);
+                byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                if (fsync) {
+                    journal.force(false);
+                }
+                lastSeq = entry.seq();
+                queue.add(entry);
+            } finally {
+                journalLock.unlock();
+            }
+        } catch (IOException e) {
+            permits.release();
+            throw new UncheckedIOException("could not journal sale", e);
+        }
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Gets the number of sales accepted but not yet stored.
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stores the journal entries past the checkpoint, left over from a previous run.
+     *
+     * @return the number of entries replayed
+     * @throws IOException if the journal cannot be read
+     */
+    public int recover() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+        List<JournalEntry> pending = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JournalEntry entry;
+                try {
+                    entry = objectMapper.readValue(line, JournalEntry.class);
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable journal entry (torn write?): {}", e.getMessage());
+                    continue;
+                }
+                if (entry.seq() > checkpointSeq) {
+                    pending.add(entry);
+                }
+            }
+        }
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            store(pending.subList(from, Math.min(from + batchSize, pending.size())));
+        }
+        for (JournalEntry entry : pending) {
+            lastSeq = Math.max(lastSeq, entry.seq());
+        }
+        truncateJournal();
+        return pending.size();
+    }
+
+    /**
+     * Writer loop: waits for the first queued sale, then drains up to a batch and stores it.
+     * A batch that fails (e.g. the database is down) is retried as is, so entries are always stored
+     * in journal order and the checkpoint never skips an unstored entry.
+     */
+    private void drain() {
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    JournalEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        compactIfIdle();
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                store(batch);
+                permits.release(batch.size());
+                written.increment(batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                log.error("Write-behind batch failed; retrying it", e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * Stores a batch in order and advances the checkpoint past it.
+     * Entries refused for their data (invalid, or a transaction code already stored) are logged and skipped;
+     * if the database itself fails, the failure is thrown before the checkpoint moves, so the batch is retried.
+     */
+    private void store(List<JournalEntry> batch) throws IOException {
+        List<Sale> sales = new ArrayList<>(batch.size());
+        for (JournalEntry entry : batch) {
+            sales.add(entry.sale());
+        }
+        ImportReport report = saleImportService.storeSales(sales);
+        for (ImportReport.RejectedRow rejected : report.getRejectedRows()) {
+            log.warn("Journaled sale {} not stored: {}", batch.get((int) rejected.line() - 1).sale().getTransactionCode(),
+                    rejected.reason());
+        }
+        long seq = batch.get(batch.size() - 1).seq();
+        if (seq > checkpointSeq) {
+            writeCheckpoint(seq);
+        }
+    }
+
+    /**
+     * Truncates the journal once every appended entry is stored, so it does not grow forever.
+     */
+    private void compactIfIdle() throws IOException {
+        journalLock.lock();
+        try {
+            if (queue.isEmpty() && lastSeq == checkpointSeq && journal.size() > 0) {
+                journal.truncate(0);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Empties the journal file after a replay.
+     */
+    private void truncateJournal() throws IOException {
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Reads the sequence of the last stored entry.
+     */
+    private long readCheckpoint() throws IOException {
+        Path checkpoint = checkpointPath();
+        return Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0;
+    }
+
+    /**
+     * Atomically and durably replaces the checkpoint file.
+     * The journal is truncated once it is fully checkpointed, so the new checkpoint must survive a crash:
+     * its contents are forced to disk before the rename, and the directory after it, so the rename
+     * cannot reach the disk ahead of the contents or be lost itself.
+     */
+    private void writeCheckpoint(long seq) throws IOException {
+        Path checkpoint = checkpointPath();
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Long.toString(seq).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(checkpoint.toAbsolutePath().getParent());
+        checkpointSeq = seq;
+    }
+
+    /**
+     * Forces a directory's entries, such as a rename within it, to disk.
+     * Some platforms (Windows) cannot open a directory for this; there the rename is as durable as the OS makes it.
+     */
+    private void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not force directory {} to disk", directory, e);
+        }
+    }
+
+    /**
+     * Gets the path of the checkpoint file next to the journal.
+     */
+    private Path checkpointPath() {
+        return journalPath.resolveSibling(journalPath.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * Pauses the writer after a failure before it retries.
+     */
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting work and lets the writer store everything still queued.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer
+     * @throws IOException if the journal cannot be closed
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!enabled || writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        journal.close();
+    }
+}
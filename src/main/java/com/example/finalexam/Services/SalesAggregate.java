@@ -0,0 +1,132 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Entities.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * One row of the sales dashboard: the totals of a group of sales.
+ * The group is identified by a label (salesman, item type or period) and the date range it covers.
+ * Totals and percentiles are held in exact cents; the decimal getters are for rendering only.
+ */
+public class SalesAggregate {
+
+    private final String label; // Salesman, item type or period the row stands for
+    private final LocalDate from; // First transaction date covered by the row
+    private final LocalDate to; // Last transaction date covered by the row
+    private final long saleCount; // Number of sales in the group
+    private final long totalCents; // Sum of the sales amounts in the group, in cents
+    private Long p50Cents; // Median sales amount in cents, or null when not computed
+    private Long p90Cents; // 90th percentile sales amount in cents, or null when not computed
+    private Long p99Cents; // 99th percentile sales amount in cents, or null when not computed
+
+    public SalesAggregate(String label, LocalDate from, LocalDate to, long saleCount, long totalCents) {
+        this.label = label;
+        this.from = from;
+        this.to = to;
+        this.saleCount = saleCount;
+        this.totalCents = totalCents;
+    }
+
+    /**
+     * Gets the label of the group.
+     * @return the salesman, item type or period
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Gets the first transaction date covered by the group.
+     * @return the start of the range
+     */
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    /**
+     * Gets the last transaction date covered by the group.
+     * @return the end of the range
+     */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    /**
+     * Gets the number of sales in the group.
+     * @return the sale count
+     */
+    public long getSaleCount() {
+        return saleCount;
+    }
+
+    /**
+     * Gets the sum of the sales amounts in the group, in cents.
+     * @return the total amount in cents
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * Gets the sum of the sales amounts in the group.
+     * @return the total amount
+     */
+    public BigDecimal getTotalAmount() {
+        return Money.fromMinorUnits(totalCents, Money.DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Gets the average sales amount of the group, rounded half-even to the cent.
+     * @return the average amount, or 0 for an empty group
+     */
+    public BigDecimal getAverageAmount() {
+        BigDecimal total = getTotalAmount();
+        return saleCount == 0 ? total : total.divide(BigDecimal.valueOf(saleCount), RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Gets the median sales amount.
+     * @return the 50th percentile, or null when percentiles were not requested
+     */
+    public BigDecimal getP50() {
+        return toAmount(p50Cents);
+    }
+
+    /**
+     * Gets the 90th percentile sales amount.
+     * @return the 90th percentile, or null when percentiles were not requested
+     */
+    public BigDecimal getP90() {
+        return toAmount(p90Cents);
+    }
+
+    /**
+     * Gets the 99th percentile sales amount.
+     * @return the 99th percentile, or null when percentiles were not requested
+     */
+    public BigDecimal getP99() {
+        return toAmount(p99Cents);
+    }
+
+    /**
+     * Sets the percentiles of the group, in cents.
+     * @param p50Cents the median amount
+     * @param p90Cents the 90th percentile amount
+     * @param p99Cents the 99th percentile amount
+     */
+    public void setPercentiles(Long p50Cents, Long p90Cents, Long p99Cents) {
+        this.p50Cents = p50Cents;
+        this.p90Cents = p90Cents;
+        this.p99Cents = p99Cents;
+    }
+
+    /**
+     * Converts an optional amount in cents to a decimal.
+     */
+    private static BigDecimal toAmount(Long cents) {
+        return cents == null ? null : Money.fromMinorUnits(cents, Money.DEFAULT_CURRENCY);
+    }
+}
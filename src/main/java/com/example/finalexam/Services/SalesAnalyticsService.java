@@ -0,0 +1,243 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
+import com.example.finalexam.Repositories.DailyTotals;
+import com.example.finalexam.Repositories.GroupTotals;
+import com.example.finalexam.Repositories.SaleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Service class for the sales dashboard.
+ * Computes counts, sums, averages and percentiles of sales grouped by salesman, item type or period.
+ * Counts and sums come from the in-memory SalesRollup once it is loaded, so they never touch the database;
+ * until then, and for percentiles, aggregation happens in the database through projection queries.
+ * Percentiles cost three ranked lookups per group, each reading through the range, so they are only
+ * computed when asked for.
+ * Ranges reaching back before the archive watermark also read the archived sales.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository running the aggregate queries
+
+    @Autowired
+    private ArchivedSaleRepository archivedSaleRepository; // Archive, read for ranges before the watermark
+
+    @Autowired
+    private SaleArchiveService saleArchiveService; // Knows which dates may be archived
+
+    @Autowired
+    private SalesRollup salesRollup; // Pre-aggregated totals kept in memory
+
+    /**
+     * Computes the totals of a date range grouped by the given dimension.
+     * Days come straight from a group-by query; weeks and months are rolled up from the daily rows,
+     * which keeps the SQL portable and the result exact.
+     *
+     * @param grouping the dimension to group by
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @param withPercentiles whether to also compute p50/p90/p99 per group (three extra queries per group)
+     * @return one aggregate per group, in key order
+     */
+    public List<SalesAggregate> getTotals(AnalyticsGrouping grouping, LocalDate from, LocalDate to, boolean withPercentiles) {
+        List<SalesAggregate> rows = switch (grouping) {
+            case SALESMAN, ITEM_TYPE -> groupTotals(grouping, from, to);
+            case DAY, WEEK, MONTH -> fromDays(dailyTotals(from, to), grouping, from, to);
+        };
+        if (withPercentiles) {
+            for (SalesAggregate row : rows) {
+                addPercentiles(row, grouping);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Computes the overall totals of a date range, and optionally its percentiles.
+     *
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @param withPercentiles whether to also compute p50/p90/p99 (three extra queries)
+     * @return a single aggregate covering every sale in the range
+     */
+    public SalesAggregate getSummary(LocalDate from, LocalDate to, boolean withPercentiles) {
+        long count = 0;
+        long totalCents = 0;
+        for (SalesAggregate day : dailyTotals(from, to)) {
+            count += day.getSaleCount();
+            totalCents += day.getTotalCents();
+        }
+        SalesAggregate summary = new SalesAggregate("All sales", from, to, count, totalCents);
+        if (withPercentiles) {
+            addPercentiles(summary, AnalyticsGrouping.DAY);
+        }
+        return summary;
+    }
+
+    /**
+     * Reads the salesman or item type totals of a range, from the rollup when loaded.
+     */
+    private List<SalesAggregate> groupTotals(AnalyticsGrouping grouping, LocalDate from, LocalDate to) {
+        if (salesRollup.isReady()) {
+            return salesRollup.getTotals(grouping, from, to);
+        }
+        List<GroupTotals> groups = new ArrayList<>(grouping == AnalyticsGrouping.SALESMAN
+                ? saleRepository.sumBySalesman(from, to)
+                : saleRepository.sumByItemType(from, to));
+        if (includesArchive(from)) {
+            groups.addAll(grouping == AnalyticsGrouping.SALESMAN
+                    ? archivedSaleRepository.sumBySalesman(from, to)
+                    : archivedSaleRepository.sumByItemType(from, to));
+        }
+        Map<String, SalesAggregate> rows = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (GroupTotals group : groups) {
+            rows.merge(group.getGroupKey(), new SalesAggregate(group.getGroupKey(), from, to, group.getSaleCount(), group.getTotalCents()),
+                    SalesAnalyticsService::sum);
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Reads the daily totals of a range (ordered by date), from the rollup when loaded.
+     */
+    private List<SalesAggregate> dailyTotals(LocalDate from, LocalDate to) {
+        if (salesRollup.isReady()) {
+            return salesRollup.getTotals(AnalyticsGrouping.DAY, from, to);
+        }
+        List<DailyTotals> days = new ArrayList<>(saleRepository.sumByDay(from, to));
+        if (includesArchive(from)) {
+            days.addAll(archivedSaleRepository.sumByDay(from, to));
+        }
+        Map<LocalDate, SalesAggregate> rows = new TreeMap<>();
+        for (DailyTotals day : days) {
+            rows.merge(day.getDay(), new SalesAggregate(day.getDay().toString(), day.getDay(), day.getDay(), day.getSaleCount(), day.getTotalCents()),
+                    SalesAnalyticsService::sum);
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Adds up the totals of one group read from both tables.
+     */
+    private static SalesAggregate sum(SalesAggregate a, SalesAggregate b) {
+        return new SalesAggregate(a.getLabel(), a.getFrom(), a.getTo(),
+                a.getSaleCount() + b.getSaleCount(), a.getTotalCents() + b.getTotalCents());
+    }
+
+    /**
+     * Tells whether a range starting on the given day may cover archived sales.
+     */
+    private boolean includesArchive(LocalDate from) {
+        LocalDate watermark = saleArchiveService.getWatermark();
+        return watermark != null && from.isBefore(watermark);
+    }
+
+    /**
+     * Rolls daily rows (ordered by date) up into day, week or month aggregates.
+     * Also used by the analytics snapshot, which groups by day first.
+     */
+    List<SalesAggregate> fromDays(List<SalesAggregate> days, AnalyticsGrouping grouping, LocalDate from, LocalDate to) {
+        List<SalesAggregate> rows = new ArrayList<>();
+        LocalDate bucketStart = null;
+        long count = 0;
+        long totalCents = 0;
+        for (SalesAggregate day : days) {
+            LocalDate start = bucketStart(day.getFrom(), grouping);
+            if (bucketStart != null && !start.equals(bucketStart)) {
+                rows.add(bucket(bucketStart, grouping, from, to, count, totalCents));
+                count = 0;
+                totalCents = 0;
+            }
+            bucketStart = start;
+            count += day.getSaleCount();
+            totalCents += day.getTotalCents();
+        }
+        if (bucketStart != null) {
+            rows.add(bucket(bucketStart, grouping, from, to, count, totalCents));
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the first day of the period the given day belongs to.
+     */
+    private LocalDate bucketStart(LocalDate day, AnalyticsGrouping grouping) {
+        return switch (grouping) {
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+            default -> day;
+        };
+    }
+
+    /**
+     * Builds the aggregate of one period, clipped to the requested range.
+     */
+    private SalesAggregate bucket(LocalDate start, AnalyticsGrouping grouping, LocalDate from, LocalDate to,
+                                  long count, long totalCents) {
+        LocalDate end = switch (grouping) {
+            case WEEK -> start.plusDays(6);
+            case MONTH -> start.with(TemporalAdjusters.lastDayOfMonth());
+            default -> start;
+        };
+        String label = switch (grouping) {
+            case WEEK -> String.format("%d-W%02d", start.get(IsoFields.WEEK_BASED_YEAR), start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> String.format("%d-%02d", start.getYear(), start.getMonthValue());
+            default -> start.toString();
+        };
+        return new SalesAggregate(label, start.isBefore(from) ? from : start, end.isAfter(to) ? to : end, count, totalCents);
+    }
+
+    /**
+     * Fills in p50/p90/p99 of a group, reading one ranked amount per percentile from the database.
+     */
+    private void addPercentiles(SalesAggregate row, AnalyticsGrouping grouping) {
+        LocalDate from = row.getFrom();
+        LocalDate to = row.getTo();
+        Function<Pageable, List<Long>> rankedAmounts;
+        if (includesArchive(from)) {
+            rankedAmounts = switch (grouping) {
+                case SALESMAN -> page -> archivedSaleRepository.findSalesmanAmountsByRankWithSales(row.getLabel(), from, to, page);
+                case ITEM_TYPE -> page -> archivedSaleRepository.findItemTypeAmountsByRankWithSales(row.getLabel(), from, to, page);
+                default -> page -> archivedSaleRepository.findAmountsByRankWithSales(from, to, page);
+            };
+        } else {
+            rankedAmounts = switch (grouping) {
+                case SALESMAN -> page -> saleRepository.findSalesmanAmountsByRank(row.getLabel(), from, to, page);
+                case ITEM_TYPE -> page -> saleRepository.findItemTypeAmountsByRank(row.getLabel(), from, to, page);
+                default -> page -> saleRepository.findAmountsByRank(from, to, page);
+            };
+        }
+        long count = row.getSaleCount();
+        row.setPercentiles(percentile(rankedAmounts, count, 0.50),
+                percentile(rankedAmounts, count, 0.90),
+                percentile(rankedAmounts, count, 0.99));
+    }
+
+    /**
+     * Picks the nearest-rank percentile: the value at rank ceil(p * n) of the ascending amounts.
+     */
+    private Long percentile(Function<Pageable, List<Long>> rankedAmounts, long count, double p) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        List<Long> amounts = rankedAmounts.apply(PageRequest.of((int) (rank - 1), 1)); // Page size 1: offset = rank - 1
+        return amounts.isEmpty() ? null : amounts.get(0);
+    }
+}
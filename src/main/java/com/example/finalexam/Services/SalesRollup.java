@@ -0,0 +1,226 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
+import com.example.finalexam.Repositories.RollupTotals;
+import com.example.finalexam.Repositories.SaleRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-memory store of pre-aggregated sales totals keyed by (item type, salesman, day).
+ * Loaded once from the database at startup, then kept up to date in place by SaleService
+ * as sales are saved, updated and deleted. Archived sales are included, so moving sales into
+ * the archive leaves the rollup unchanged. Each group holds striped counters, so concurrent
+ * writers never contend on a lock, and aggregate reads cost O(groups) without touching the database.
+ * Amounts are summed as primitive longs of cents, so totals are exact and updates allocate nothing.
+ */
+@Component
+public class SalesRollup {
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository used to rebuild the rollup
+
+    @Autowired
+    private ArchivedSaleRepository archivedSaleRepository; // Archive, rebuilt together with the Sale table
+
+    private volatile Map<Key, Cell> cells = new ConcurrentHashMap<>(); // Totals per group
+    private volatile Cell overall = new Cell(); // Totals of all groups together
+    private volatile boolean ready; // Whether the rollup has been loaded and can serve reads
+
+    /**
+     * Identifies one rollup group.
+     */
+    public record Key(String itemType, String name, LocalDate day) {
+    }
+
+    /**
+     * The contribution of a single sale to the rollup, captured before the sale is changed.
+     */
+    public record Entry(Key key, long amountCents) {
+    }
+
+    /**
+     * Running sum of several groups while answering a read.
+     */
+    private static final class Sum {
+        private long count; // Number of sales summed so far
+        private long totalCents; // Sum of the sales amounts so far, in cents
+    }
+
+    /**
+     * Striped counters of one group.
+     */
+    private static final class Cell {
+        private final LongAdder count = new LongAdder(); // Number of sales in the group
+        private final LongAdder totalCents = new LongAdder(); // Sum of the sales amounts in the group, in cents
+    }
+
+    /**
+     * Rebuilds the rollup from the database with one group-by query per table.
+     * Runs at startup, before the web server accepts requests.
+     */
+    @PostConstruct
+    public void rebuild() {
+        Map<Key, Cell> rebuilt = new ConcurrentHashMap<>();
+        addAll(rebuilt, saleRepository.sumByItemTypeSalesmanAndDay());
+        addAll(rebuilt, archivedSaleRepository.sumByItemTypeSalesmanAndDay());
+        Cell total = new Cell();
+        for (Cell cell : rebuilt.values()) {
+            total.count.add(cell.count.sum());
+            total.totalCents.add(cell.totalCents.sum());
+        }
+        cells = rebuilt;
+        overall = total;
+        ready = true;
+    }
+
+    /**
+     * Adds group totals read from the database to a rollup being rebuilt.
+     */
+    private static void addAll(Map<Key, Cell> rebuilt, List<RollupTotals> groups) {
+        for (RollupTotals totals : groups) {
+            Cell cell = rebuilt.computeIfAbsent(new Key(totals.getItemType(), totals.getName(), totals.getDay()), k -> new Cell());
+            cell.count.add(totals.getSaleCount());
+            cell.totalCents.add(totals.getTotalCents());
+        }
+    }
+
+    /**
+     * Tells whether the rollup is loaded and can answer aggregate reads.
+     * @return true once the rollup has been built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Captures the rollup contribution of a sale.
+     *
+     * @param sale the sale
+     * @return the entry to add or remove later
+     */
+    public Entry entryOf(Sale sale) {
+        return new Entry(new Key(sale.getItemType(), sale.getName(), sale.getTransactionDate()), sale.getSalesAmountCents());
+    }
+
+    /**
+     * Adds a sale's contribution to its group.
+     *
+     * @param entry the contribution to add
+     */
+    public void add(Entry entry) {
+        Cell cell = cells.computeIfAbsent(entry.key(), k -> new Cell());
+        cell.count.increment();
+        cell.totalCents.add(entry.amountCents());
+        overall.count.increment();
+        overall.totalCents.add(entry.amountCents());
+    }
+
+    /**
+     * Removes a sale's contribution from its group.
+     *
+     * @param entry the contribution to remove
+     */
+    public void remove(Entry entry) {
+        Cell cell = cells.computeIfAbsent(entry.key(), k -> new Cell());
+        cell.count.decrement();
+        cell.totalCents.add(-entry.amountCents());
+        overall.count.decrement();
+        overall.totalCents.add(-entry.amountCents());
+    }
+
+    /**
+     * Removes the group totals of sales deleted in bulk, read from the database before the delete.
+     *
+     * @param groups the totals to remove, one per group
+     */
+    public void removeAll(List<RollupTotals> groups) {
+        for (RollupTotals totals : groups) {
+            Cell cell = cells.computeIfAbsent(new Key(totals.getItemType(), totals.getName(), totals.getDay()), k -> new Cell());
+            cell.count.add(-totals.getSaleCount());
+            cell.totalCents.add(-totals.getTotalCents());
+            overall.count.add(-totals.getSaleCount());
+            overall.totalCents.add(-totals.getTotalCents());
+        }
+    }
+
+    /**
+     * Runs a rollup update once the current transaction commits, or immediately when there is none,
+     * so rolled-back writes never reach the rollup.
+     *
+     * @param update the update to apply
+     */
+    public void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Reads the running totals of every sale, archived ones included, in constant time.
+     *
+     * @return the sale count and total amount of all sales, without a date range
+     */
+    public SalesAggregate getOverall() {
+        Cell total = overall;
+        return new SalesAggregate("All sales", null, null, total.count.sum(), total.totalCents.sum());
+    }
+
+    /**
+     * Reads the totals of a date range grouped by salesman, item type or day.
+     * Weeks and months are rolled up from days by the caller.
+     *
+     * @param grouping SALESMAN, ITEM_TYPE or DAY
+     * @param from the first transaction date included
+     * @param to the last transaction date included
+     * @return one aggregate per non-empty group, in key order
+     */
+    public List<SalesAggregate> getTotals(AnalyticsGrouping grouping, LocalDate from, LocalDate to) {
+        Function<Key, String> label = switch (grouping) {
+            case SALESMAN -> Key::name;
+            case ITEM_TYPE -> Key::itemType;
+            default -> key -> key.day().toString();
+        };
+        Map<String, Sum> sums = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (Map.Entry<Key, Cell> entry : cells.entrySet()) {
+            LocalDate day = entry.getKey().day();
+            long count = entry.getValue().count.sum();
+            if (day == null || day.isBefore(from) || day.isAfter(to) || count == 0) {
+                continue;
+            }
+            Sum sum = sums.computeIfAbsent(label.apply(entry.getKey()), k -> new Sum());
+            sum.count += count;
+            sum.totalCents += entry.getValue().totalCents.sum();
+        }
+
+        List<SalesAggregate> rows = new ArrayList<>(sums.size());
+        for (Map.Entry<String, Sum> entry : sums.entrySet()) {
+            String group = entry.getKey();
+            LocalDate start = grouping == AnalyticsGrouping.DAY ? LocalDate.parse(group) : from;
+            LocalDate end = grouping == AnalyticsGrouping.DAY ? start : to;
+            rows.add(new SalesAggregate(group, start, end, entry.getValue().count, entry.getValue().totalCents));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,472 @@
+package com.example.finalexam.Services;
+
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Repositories.SnapshotRow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Read-only, columnar in-memory copy of every sale for ad-hoc analytical queries that must not load the Sale table.
+ * Each sale is one position across primitive column arrays: the amount in cents and the transaction date as an
+ * epoch day, with salesman and item type dictionary-encoded as int codes into small string tables.
+ * Queries scan, filter and group the rows in parallel on a dedicated fork-join pool: the rows are split into
+ * ranges, each range adds its matching rows into dense per-group counters, and the counters are summed as the
+ * tasks join. Filters on salesman and item type are resolved against the dictionaries once per query, so the
+ * scan itself only compares ints.
+ * The snapshot is refreshed periodically. New rows of the Sale table are appended by reading past the highest
+ * ID seen; the whole snapshot, archive included, is reloaded at a longer interval to pick up edits, deletions
+ * and rows committed out of ID order. Results may therefore lag the database by up to those intervals.
+ * Appends write past the end of the arrays a published snapshot reads, so readers never see a row half-written.
+ */
+@Component
+public class SalesSnapshot {
+
+    public static final String ROWS_METRIC = "sales.snapshot.rows"; // Gauge of the rows held in the snapshot
+    private static final int NO_DAY = Integer.MIN_VALUE; // Epoch day stored for sales without a transaction date
+    private static final int ANY = -1; // Item type code of a filter without an item type
+    private static final int NO_MATCH = -2; // Item type code of a filter naming an item type no sale has
+
+    @Autowired
+    private SaleRepository saleRepository; // Source of the new rows appended on each refresh
+
+    @Autowired
+    private ArchivedSaleRepository archivedSaleRepository; // Archive, read on each full reload
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService; // Rolls daily totals up into weeks and months
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry receiving the row gauge
+
+    @Value("${sales.snapshot.batch-size:10000}")
+    private int batchSize; // Rows read from the database per query while loading
+
+    @Value("${sales.snapshot.rebuild-ms:3600000}")
+    private long rebuildMillis; // Interval between full reloads
+
+    @Value("${sales.snapshot.split-rows:16384}")
+    private int splitRows; // Rows a fork-join task scans itself instead of splitting further
+
+    @Value("${sales.snapshot.parallelism:0}")
+    private int parallelism; // Threads scanning the snapshot; 0 uses one per processor
+
+    private ForkJoinPool pool; // Pool running the query scans, kept apart from the common pool
+    private volatile Columns columns; // Published snapshot read by queries, or null until loaded
+    private Builder builder; // Columns being appended to by refreshes, guarded by this
+    private long loadedAt; // System.nanoTime() of the last full reload, guarded by this
+
+    /**
+     * One published state of the snapshot: the first {@code size} positions of the column arrays.
+     * The arrays may be longer and may be appended to after publication; positions below size never change.
+     */
+    private record Columns(int size, long[] amountCents, int[] epochDays, int[] nameCodes, int[] itemTypeCodes,
+                           String[] names, int nameCount, String[] itemTypes, int itemTypeCount,
+                           int firstDay, int lastDay) {
+    }
+
+    /**
+     * Append-only string table mapping each distinct value to a dense int code.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>(); // Code of each value seen
+        private String[] values = new String[16]; // Value of each code
+        private int size; // Number of codes issued
+
+        /**
+         * Returns the code of a value, issuing the next code for a new value.
+         */
+        private int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size] = value;
+                code = size++;
+                codes.put(value, code);
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Column arrays being filled by the refresher, grown by doubling.
+     */
+    private static final class Builder {
+        private long[] amountCents = new long[1024]; // Amount of each row, in cents
+        private int[] epochDays = new int[1024]; // Transaction date of each row, or NO_DAY
+        private int[] nameCodes = new int[1024]; // Salesman code of each row
+        private int[] itemTypeCodes = new int[1024]; // Item type code of each row
+        private final Dictionary names = new Dictionary(); // Salesman names
+        private final Dictionary itemTypes = new Dictionary(); // Item types
+        private int size; // Rows appended
+        private long lastSaleId; // Highest Sale table ID appended
+        private int firstDay = Integer.MAX_VALUE; // Earliest transaction date appended, as an epoch day
+        private int lastDay = Integer.MIN_VALUE; // Latest transaction date appended, as an epoch day
+
+        /**
+         * Appends one row.
+         */
+        private void add(SnapshotRow row) {
+            if (size == amountCents.length) {
+                amountCents = Arrays.copyOf(amountCents, size * 2);
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                nameCodes = Arrays.copyOf(nameCodes, size * 2);
+                itemTypeCodes = Arrays.copyOf(itemTypeCodes, size * 2);
+            }
+            int day = row.getTransactionDate() == null ? NO_DAY : (int) row.getTransactionDate().toEpochDay();
+            amountCents[size] = row.getSalesAmountCents() == null ? 0 : row.getSalesAmountCents();
+            epochDays[size] = day;
+            nameCodes[size] = names.encode(row.getName());
+            itemTypeCodes[size] = itemTypes.encode(row.getItemType());
+            if (day != NO_DAY) {
+                firstDay = Math.min(firstDay, day);
+                lastDay = Math.max(lastDay, day);
+            }
+            size++;
+        }
+
+        /**
+         * Captures the rows appended so far as a snapshot for readers.
+         */
+        private Columns publish() {
+            return new Columns(size, amountCents, epochDays, nameCodes, itemTypeCodes,
+                    names.values, names.size, itemTypes.values, itemTypes.size, firstDay, lastDay);
+        }
+    }
+
+    /**
+     * The filter of one query resolved against the dictionaries of the snapshot it runs on.
+     */
+    private record Scan(Columns columns, boolean[] names, int itemType, boolean dated, int fromDay, int toDay,
+                        long minCents, long maxCents) {
+
+        /**
+         * Tells whether the row at a position passes the filter.
+         */
+        private boolean matches(int row) {
+            if (names != null && !names[columns.nameCodes()[row]]) {
+                return false;
+            }
+            if (itemType != ANY && columns.itemTypeCodes()[row] != itemType) {
+                return false;
+            }
+            int day = columns.epochDays()[row];
+            if (dated && (day == NO_DAY || day < fromDay || day > toDay)) {
+                return false;
+            }
+            long amount = columns.amountCents()[row];
+            return amount >= minCents && amount <= maxCents;
+        }
+    }
+
+    /**
+     * Counts and sums the matching rows of a range of positions per group, splitting large ranges in two.
+     * The result holds the count of group g at 2g and its total in cents at 2g + 1.
+     */
+    private static final class GroupTask extends RecursiveTask<long[]> {
+        private final Scan scan; // Filter and columns of the query
+        private final IntUnaryOperator group; // Group of the row at a position, or -1 to leave it out
+        private final int groups; // Number of groups
+        private final int splitRows; // Largest range scanned without splitting
+        private final int from; // First position scanned
+        private final int to; // Position after the last one scanned
+
+        private GroupTask(Scan scan, IntUnaryOperator group, int groups, int splitRows, int from, int to) {
+            this.scan = scan;
+            this.group = group;
+            this.groups = groups;
+            this.splitRows = splitRows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= splitRows) {
+                long[] totals = new long[groups * 2];
+                long[] amounts = scan.columns().amountCents();
+                for (int row = from; row < to; row++) {
+                    if (scan.matches(row)) {
+                        int g = group.applyAsInt(row);
+                        if (g >= 0) {
+                            totals[2 * g]++;
+                            totals[2 * g + 1] += amounts[row];
+                        }
+                    }
+                }
+                return totals;
+            }
+            int middle = (from + to) >>> 1;
+            GroupTask left = new GroupTask(scan, group, groups, splitRows, from, middle);
+            left.fork();
+            long[] totals = new GroupTask(scan, group, groups, splitRows, middle, to).compute();
+            long[] leftTotals = left.join();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += leftTotals[i];
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Starts the scan pool and registers the row gauge.
+     */
+    @PostConstruct
+    public void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        Gauge.builder(ROWS_METRIC, this, snapshot -> snapshot.columns == null ? 0 : snapshot.columns.size())
+                .description("Sales held in the analytics snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stops the scan pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Brings the snapshot up to date: appends the Sale table rows past the highest ID seen, or reloads
+     * both tables when the rebuild interval has passed. Runs in the background and on the first query.
+     */
+    @Scheduled(fixedDelayString = "${sales.snapshot.refresh-ms:60000}")
+    public synchronized void refresh() {
+        if (builder == null || System.nanoTime() - loadedAt >= TimeUnit.MILLISECONDS.toNanos(rebuildMillis)) {
+            Builder reloaded = new Builder();
+            load(reloaded, archivedSaleRepository::findSnapshotRowsAfter, false);
+            load(reloaded, saleRepository::findSnapshotRowsAfter, true);
+            builder = reloaded;
+            loadedAt = System.nanoTime();
+        } else {
+            load(builder, saleRepository::findSnapshotRowsAfter, true);
+        }
+        columns = builder.publish();
+    }
+
+    /**
+     * Appends the rows of one table in batches, reading past the last ID of each batch.
+     */
+    private void load(Builder target, BiFunction<Long, Limit, List<SnapshotRow>> batches, boolean saleTable) {
+        long after = saleTable ? target.lastSaleId : 0;
+        List<SnapshotRow> rows;
+        do {
+            rows = batches.apply(after, Limit.of(batchSize));
+            for (SnapshotRow row : rows) {
+                target.add(row);
+                after = row.getId();
+            }
+            if (saleTable) {
+                target.lastSaleId = after;
+            }
+        } while (rows.size() == batchSize);
+    }
+
+    /**
+     * Gets the number of sales in the snapshot.
+     *
+     * @return the row count
+     */
+    public int getRowCount() {
+        return current().size();
+    }
+
+    /**
+     * Computes the totals of the matching sales grouped by the given dimension.
+     * Without dates in the filter, periods span the dates present in the snapshot.
+     *
+     * @param filter the filter criteria, or null for none; the transaction code is not supported
+     * @param grouping the dimension to group by
+     * @return one aggregate per non-empty group, in key order
+     */
+    public List<SalesAggregate> getTotals(SaleFilter filter, AnalyticsGrouping grouping) {
+        Columns snapshot = current();
+        Scan scan = compile(filter, snapshot);
+        return switch (grouping) {
+            case SALESMAN -> byCode(group(scan, row -> snapshot.nameCodes()[row], snapshot.nameCount()),
+                    snapshot.names(), snapshot.nameCount(), filter);
+            case ITEM_TYPE -> byCode(group(scan, row -> snapshot.itemTypeCodes()[row], snapshot.itemTypeCount()),
+                    snapshot.itemTypes(), snapshot.itemTypeCount(), filter);
+            case DAY -> days(scan, 1, false);
+            case WEEK, MONTH -> {
+                List<SalesAggregate> days = days(scan, 1, false);
+                yield days.isEmpty() ? days : salesAnalyticsService.fromDays(days, grouping,
+                        LocalDate.ofEpochDay(scan.fromDay()), LocalDate.ofEpochDay(scan.toDay()));
+            }
+        };
+    }
+
+    /**
+     * Ranks the salesmen of each item type by their total among the matching sales.
+     *
+     * @param filter the filter criteria, or null for none; the transaction code is not supported
+     * @param limit the number of salesmen to keep per item type
+     * @return the top salesmen of each item type, highest total first, keyed by item type in key order
+     */
+    public Map<String, List<SalesAggregate>> getTopSalesmen(SaleFilter filter, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be at least 1");
+        }
+        Columns snapshot = current();
+        int names = snapshot.nameCount();
+        long[] totals = group(compile(filter, snapshot),
+                row -> snapshot.itemTypeCodes()[row] * names + snapshot.nameCodes()[row], snapshot.itemTypeCount() * names);
+        Map<String, List<SalesAggregate>> top = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (int type = 0; type < snapshot.itemTypeCount(); type++) {
+            List<SalesAggregate> salesmen = byCode(Arrays.copyOfRange(totals, 2 * type * names, 2 * (type + 1) * names),
+                    snapshot.names(), names, filter);
+            if (!salesmen.isEmpty()) {
+                salesmen.sort(Comparator.comparingLong(SalesAggregate::getTotalCents).reversed()
+                        .thenComparing(SalesAggregate::getLabel, Comparator.nullsFirst(Comparator.naturalOrder())));
+                top.put(snapshot.itemTypes()[type], new ArrayList<>(salesmen.subList(0, Math.min(limit, salesmen.size()))));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Computes a trailing moving window over the matching sales for every day of the range.
+     * Each row covers the window ending on its day (clipped to the range); its average amount is the
+     * moving average sale amount, and its total divided by the window length the moving daily total.
+     *
+     * @param filter the filter criteria, or null for none; the transaction code is not supported
+     * @param windowDays the length of the window in days
+     * @return one aggregate per day of the range that lies within the snapshot's dates, days without sales
+     * included, in date order
+     */
+    public List<SalesAggregate> getMovingTotals(SaleFilter filter, int windowDays) {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("The window must be at least 1 day");
+        }
+        Columns snapshot = current();
+        return days(compile(filter, snapshot), windowDays, true);
+    }
+
+    /**
+     * Returns the published snapshot, loading it first if no refresh has run yet.
+     */
+    private Columns current() {
+        Columns snapshot = columns;
+        if (snapshot == null) {
+            refresh();
+            snapshot = columns;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Resolves a filter against the dictionaries and date range of a snapshot.
+     * Without dates in the filter, the date range is that of the snapshot.
+     */
+    private Scan compile(SaleFilter filter, Columns snapshot) {
+        SaleFilter criteria = filter == null ? new SaleFilter() : filter;
+        if (criteria.getTransactionCode() != null && !criteria.getTransactionCode().isBlank()) {
+            throw new IllegalArgumentException("The analytics snapshot does not hold transaction codes");
+        }
+        boolean[] names = null;
+        if (criteria.getNamePrefix() != null && !criteria.getNamePrefix().isBlank()) {
+            String prefix = criteria.getNamePrefix().trim();
+            names = new boolean[snapshot.nameCount()];
+            for (int code = 0; code < names.length; code++) {
+                names[code] = snapshot.names()[code] != null && snapshot.names()[code].startsWith(prefix);
+            }
+        }
+        int itemType = ANY;
+        if (criteria.getItemType() != null && !criteria.getItemType().isBlank()) {
+            itemType = NO_MATCH;
+            for (int code = 0; code < snapshot.itemTypeCount(); code++) {
+                if (criteria.getItemType().trim().equals(snapshot.itemTypes()[code])) {
+                    itemType = code;
+                }
+            }
+        }
+        int fromDay = criteria.getFromDate() != null ? (int) criteria.getFromDate().toEpochDay() : snapshot.firstDay();
+        int toDay = criteria.getToDate() != null ? (int) criteria.getToDate().toEpochDay() : snapshot.lastDay();
+        long minCents = criteria.getMinAmount() == null ? Long.MIN_VALUE : SaleFilter.toCents(criteria.getMinAmount(), RoundingMode.CEILING);
+        long maxCents = criteria.getMaxAmount() == null ? Long.MAX_VALUE : SaleFilter.toCents(criteria.getMaxAmount(), RoundingMode.FLOOR);
+        return new Scan(snapshot, names, itemType, criteria.getFromDate() != null || criteria.getToDate() != null,
+                fromDay, toDay, minCents, maxCents);
+    }
+
+    /**
+     * Runs a grouped scan over every row of the snapshot on the scan pool.
+     */
+    private long[] group(Scan scan, IntUnaryOperator group, int groups) {
+        return pool.invoke(new GroupTask(scan, group, groups, Math.max(1, splitRows), 0, scan.columns().size()));
+    }
+
+    /**
+     * Turns dense per-code totals into aggregates labelled by the dictionary, leaving out empty groups.
+     */
+    private List<SalesAggregate> byCode(long[] totals, String[] labels, int codes, SaleFilter filter) {
+        LocalDate from = filter == null ? null : filter.getFromDate();
+        LocalDate to = filter == null ? null : filter.getToDate();
+        List<SalesAggregate> rows = new ArrayList<>();
+        for (int code = 0; code < codes; code++) {
+            if (totals[2 * code] > 0) {
+                rows.add(new SalesAggregate(labels[code], from, to, totals[2 * code], totals[2 * code + 1]));
+            }
+        }
+        rows.sort(Comparator.comparing(SalesAggregate::getLabel, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return rows;
+    }
+
+    /**
+     * Computes per-day totals over the date range of a scan, summed over a trailing window of days.
+     * The range is clipped to the dates held in the snapshot, which bounds the counters a scan allocates.
+     * With a window of one day and without empty days, these are the plain daily totals.
+     */
+    private List<SalesAggregate> days(Scan scan, int windowDays, boolean withEmptyDays) {
+        int first = Math.max(scan.fromDay(), scan.columns().firstDay());
+        int last = Math.min(scan.toDay(), scan.columns().lastDay());
+        if (first > last) {
+            return new ArrayList<>(); // No dated sales, or an empty range
+        }
+        long[] totals = group(scan, row -> {
+            int day = scan.columns().epochDays()[row];
+            return day == NO_DAY || day < first || day > last ? -1 : day - first;
+        }, last - first + 1);
+        List<SalesAggregate> rows = new ArrayList<>();
+        long count = 0;
+        long totalCents = 0;
+        for (int day = 0; day <= last - first; day++) {
+            count += totals[2 * day];
+            totalCents += totals[2 * day + 1];
+            if (day >= windowDays) {
+                count -= totals[2 * (day - windowDays)];
+                totalCents -= totals[2 * (day - windowDays) + 1];
+            }
+            if (withEmptyDays || totals[2 * day] > 0) {
+                LocalDate end = LocalDate.ofEpochDay(first + day);
+                LocalDate start = LocalDate.ofEpochDay(first + Math.max(0, day - windowDays + 1));
+                rows.add(new SalesAggregate(end.toString(), start, end, count, totalCents));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.finalexam.Services;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique, time-sortable transaction codes without a database round-trip or lock.
+ * Each code is a Snowflake-style 64-bit number, 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of node ID and 12 bits of sequence, written as 13 Crockford base32 characters, so
+ * codes sort by creation time both as numbers and as strings.
+ * Threads claim the next (timestamp, sequence) pair with a compare-and-set on a single AtomicLong.
+ * When a millisecond's 4096 sequence numbers run out, or the clock steps back, the generator keeps
+ * counting forward instead of waiting, so it never blocks and never repeats a value.
+ * Instances sharing a database must be given distinct node IDs (sales.code.node-id); by default a
+ * random node ID is picked, and the unique index on transactionCode catches the rare clash.
+ */
+@Component
+public class TransactionCodeGenerator {
+
+    public static final int CODE_LENGTH = 13; // Characters in a code: 13 x 5 bits covers 64 bits
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli(); // Start of the timestamp field
+    public static final int NODE_BITS = 10; // Bits of node ID, allowing 1024 instances
+    public static final int SEQUENCE_BITS = 12; // Bits of sequence, allowing 4096 codes per millisecond
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray(); // Crockford base32
+
+    @Value("${sales.code.node-id:-1}")
+    private int nodeId; // ID of this instance, or negative to pick one at random
+
+    private final AtomicLong lastStamp = new AtomicLong(); // Last issued (timestamp << SEQUENCE_BITS | sequence)
+
+    /**
+     * Resolves the node ID, picking a random one when none is configured.
+     */
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0) {
+            nodeId = new SecureRandom().nextInt(1 << NODE_BITS);
+        }
+        if (nodeId >= 1 << NODE_BITS) {
+            throw new IllegalStateException("sales.code.node-id must be below " + (1 << NODE_BITS));
+        }
+    }
+
+    /**
+     * Generates the next transaction code.
+     *
+     * @return a new 13-character code
+     */
+    public String next() {
+        return encode(nextId());
+    }
+
+    /**
+     * Generates the next 64-bit ID.
+     *
+     * @return a new ID, greater than every ID issued before by this instance
+     */
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        while (true) {
+            long last = lastStamp.get();
+            long next = (now << SEQUENCE_BITS) > last
+                    ? now << SEQUENCE_BITS // New millisecond: restart the sequence
+                    : last + 1; // Same millisecond, or clock behind: carry on counting (overflow moves into the timestamp)
+            if (lastStamp.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | ((long) nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * Writes a 64-bit ID as fixed-width Crockford base32, most significant character first.
+     *
+     * @param id the ID
+     * @return the 13-character code
+     */
+    public static String encode(long id) {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(code);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.finalexam.Web;
+
+import com.example.finalexam.Services.AnalyticsGrouping;
+import com.example.finalexam.Services.SalesAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDate;
+
+/**
+ * Controller class for the sales dashboard.
+ * Shows sales totals grouped by salesman, item type or period over a date range.
+ */
+@Controller
+@RequestMapping("/services")
+public class DashboardController {
+
+    public static final int DEFAULT_RANGE_DAYS = 30; // Length of the date range shown when none is given
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService; // Service computing the aggregates
+
+    /**
+     * Displays the sales dashboard.
+     *
+     * @param groupBy The dimension to group totals by.
+     * @param from The first transaction date included, defaulting to 30 days before the end date.
+     * @param to The last transaction date included, defaulting to today.
+     * @param percentiles Whether to compute percentiles, for the summary and every group; off by default,
+     *                    so a refresh reads only counts and sums.
+     * @param model The model to hold the summary and the grouped rows.
+     * @return The name of the Thymeleaf template to render.
+     */
+    @GetMapping("/dashboard")
+    public String viewDashboard(@RequestParam(value = "groupBy", defaultValue = "ITEM_TYPE") AnalyticsGrouping groupBy,
+                                @RequestParam(value = "from", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam(value = "to", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                @RequestParam(value = "percentiles", defaultValue = "false") boolean percentiles,
+                                Model model) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        model.addAttribute("groupBy", groupBy); // Selected grouping
+        model.addAttribute("from", start); // Selected range start
+        model.addAttribute("to", end); // Selected range end
+        model.addAttribute("percentiles", percentiles); // Whether percentiles were requested
+        model.addAttribute("groupings", AnalyticsGrouping.values()); // Options for the grouping selector
+        model.addAttribute("summary", salesAnalyticsService.getSummary(start, end, percentiles)); // Totals over the whole range
+        model.addAttribute("rows", salesAnalyticsService.getTotals(groupBy, start, end, percentiles)); // Grouped totals
+        return "dashboard"; // Return the view name for the dashboard
+    }
+}
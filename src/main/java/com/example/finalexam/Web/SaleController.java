@@ -1,13 +1,33 @@
 package com.example.finalexam.Web;
 
 import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleExportService;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SalePage;
 import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SaleValidator;
+import com.example.finalexam.Services.SaleWriteBehind;
+import com.example.finalexam.Services.TransactionCodeGenerator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller class for managing sales-related operations.
@@ -21,15 +41,30 @@ public class SaleController {
     @Autowired
     private SaleService saleService; // Service for handling business logic related to sales
 
+    @Autowired
+    private SaleWriteBehind saleWriteBehind; // Optional queue that acknowledges sales before they are stored
+
+    @Autowired
+    private TransactionCodeGenerator transactionCodeGenerator; // Issues the code shown on the new-sale form
+
+    @Autowired
+    private SaleExportService saleExportService; // Streams the full report from database cursors
+
+    @Autowired
+    private ObjectProvider<ThymeleafViewResolver> viewResolver; // Resolves the full report view, rendered while the cursors are open; absent outside a web application
+
     /**
      * Displays the form for creating a new sale.
+     * The transaction code is issued here, so a resubmitted form carries the same code.
      *
      * @param model The model to hold the Sale object for the form.
      * @return The name of the Thymeleaf template to render.
      */
     @GetMapping("/sales")
     public String showSalesForm(Model model) {
-        model.addAttribute("sale", new Sale()); // Add an empty Sale object to the model
+        Sale sale = new Sale();
+        sale.setTransactionCode(transactionCodeGenerator.next()); // Assign the code before the sale is submitted
+        model.addAttribute("sale", sale); // Add an empty Sale object to the model
         return "salesForm"; // Return the view name for the sales form
     }
 
@@ -37,33 +72,98 @@ public class SaleController {
      * Handles the submission of the sales form to save a new sale.
      *
      * @param sale The Sale object submitted from the form.
+     * @param bindingResult The fields that could not be bound, such as an amount with too many decimal places.
      * @param model The model to hold error messages if validation fails.
+     * @param response The response, marked 503 when the write-behind queue is full.
      * @return A redirect to the sales report if successful, or the sales form if validation fails.
+     * @throws InterruptedException if interrupted while waiting for write-behind queue space
      */
     @PostMapping("/saveSale")
-    public String saveSale(@ModelAttribute Sale sale, Model model) {
+    public String saveSale(@ModelAttribute Sale sale, BindingResult bindingResult, Model model, HttpServletResponse response)
+            throws InterruptedException {
         // Validate the Sale object
-        if (sale.getName() == null || sale.getItemType() == null || sale.getSalesAmount() <= 0 || sale.getTransactionDate() == null) {
+        if (bindingResult.hasErrors() || SaleValidator.validate(sale) != null) {
             model.addAttribute("errorMessage", "All fields must be filled out correctly."); // Add error message to the model
             return "salesForm"; // Return to the sales form if validation fails
         }
-        saleService.saveSale(sale); // Save the Sale object using the service
+        if (saleWriteBehind.isEnabled()) {
+            if (!saleWriteBehind.submit(sale)) {
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value()); // Queue full: push back instead of piling up
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                model.addAttribute("errorMessage", "The system is busy. Please submit the sale again in a moment.");
+                return "salesForm";
+            }
+            return "redirect:/services/salesReport"; // Accepted; the sale shows up in the report once stored
+        }
+        try {
+            saleService.saveSale(sale); // Save the Sale object using the service
+        } catch (DataIntegrityViolationException e) {
+            model.addAttribute("errorMessage", "A sale with this transaction code already exists."); // Unique index on transactionCode
+            return "salesForm";
+        }
         return "redirect:/services/salesReport"; // Redirect to the sales report page upon successful save
     }
 
     /**
-     * Displays the sales report showing all sales.
+     * Displays one page of the sales report.
+     * Pages are keyset-based: the "next" link carries the key of the last row shown,
+     * so each request only reads a bounded number of rows.
+     * Optional filter parameters narrow the report; paging links carry them along.
      *
-     * @param model The model to hold the list of sales.
+     * @param filter The filter criteria bound from the request parameters.
+     * @param sort The sort field, "date" or "id".
+     * @param dir The sort direction, "asc" or "desc".
+     * @param afterId The ID of the last sale on the previous page, absent for the first page.
+     * @param afterDate The transaction date of the last sale on the previous page, absent for the first page.
+     * @param size The number of sales per page.
+     * @param model The model to hold the page of sales.
      * @return The name of the Thymeleaf template to render.
      */
     @GetMapping("/salesReport")
-    public String viewSalesReport(Model model) {
-        List<Sale> sales = saleService.getAllSales(); // Retrieve all sales from the service
-        model.addAttribute("sales", sales); // Add the list of sales to the model
+    public String viewSalesReport(@ModelAttribute("filter") SaleFilter filter,
+                                  @RequestParam(value = "sort", defaultValue = SalePage.SORT_BY_DATE) String sort,
+                                  @RequestParam(value = "dir", defaultValue = "desc") String dir,
+                                  @RequestParam(value = "afterId", required = false) Long afterId,
+                                  @RequestParam(value = "afterDate", required = false)
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+                                  @RequestParam(value = "size", defaultValue = "" + SaleService.DEFAULT_PAGE_SIZE) int size,
+                                  Model model) {
+        SalePage page = saleService.getSalesPage(filter, sort, "asc".equalsIgnoreCase(dir), afterId, afterDate, size); // Retrieve one page of matching sales
+        model.addAttribute("page", page); // Add the page (sort, direction, next keyset) to the model
+        model.addAttribute("sales", page.getSales()); // Add the sales on the page to the model
         return "salesReport"; // Return the view name for the sales report
     }
 
+    /**
+     * Displays every sale matching the filter on one page, in the chosen order.
+     * The rows are pulled from database cursors while the template renders and written to the
+     * response as they are produced, so the first bytes go out before the last row is read and
+     * the memory used does not depend on the number of rows.
+     *
+     * @param filter The filter criteria bound from the request parameters.
+     * @param sort The sort field, "date" or "id".
+     * @param dir The sort direction, "asc" or "desc".
+     * @param request The request the view is rendered for.
+     * @param response The response the rows are streamed to.
+     * @throws Exception if the view cannot be resolved or rendering fails.
+     */
+    @GetMapping("/salesReport/all")
+    public void viewFullSalesReport(@ModelAttribute("filter") SaleFilter filter,
+                                    @RequestParam(value = "sort", defaultValue = SalePage.SORT_BY_DATE) String sort,
+                                    @RequestParam(value = "dir", defaultValue = "desc") String dir,
+                                    HttpServletRequest request, HttpServletResponse response) throws Exception {
+        boolean ascending = "asc".equalsIgnoreCase(dir);
+        View view = viewResolver.getObject().resolveViewName("salesReportAll", request.getLocale());
+        Map<String, Object> model = new HashMap<>();
+        model.put("filter", filter); // Filter shown above the rows and carried back to the paged report
+        model.put("sort", SalePage.SORT_BY_ID.equals(sort) ? SalePage.SORT_BY_ID : SalePage.SORT_BY_DATE);
+        model.put("ascending", ascending);
+        saleExportService.streamReport(filter, sort, ascending, sales -> {
+            model.put("sales", sales); // Iterated lazily by th:each
+            view.render(model, request, response);
+        });
+    }
+
     /**
      * Displays the form for editing an existing sale.
      *
@@ -80,13 +180,35 @@ public class SaleController {
 
     /**
      * Handles the submission of the sales edit form to update an existing sale.
+     * The sale is checked with the same rules as a new one (SaleValidator). The form carries the version the sale was read at; if someone else changed the sale since,
+     * nothing is written and the form is shown again (409) with the current values and the submitted ones.
      *
      * @param sale The Sale object with updated information.
-     * @return A redirect to the sales report page upon successful update.
+     * @param bindingResult The fields that could not be bound, such as an amount with too many decimal places.
+     * @param model The model to hold the current sale and the conflict or validation message.
+     * @param response The response, marked 409 when the sale was changed concurrently.
+     * @return A redirect to the sales report page upon successful update, or the edit form on a conflict or invalid input.
      */
     @PostMapping("/updateSale")
-    public String updateSale(@ModelAttribute Sale sale) {
-        saleService.saveSale(sale); // Save the updated Sale object using the service
+    public String updateSale(@ModelAttribute Sale sale, BindingResult bindingResult, Model model, HttpServletResponse response) {
+        if (bindingResult.hasErrors() || SaleValidator.validate(sale) != null) {
+            model.addAttribute("errorMessage", "All fields must be filled out correctly.");
+            return "editSale"; // Shows the submitted values again
+        }
+        try {
+            saleService.saveSale(sale); // Save the updated Sale object using the service
+        } catch (OptimisticLockingFailureException e) {
+            Sale current = saleService.getSaleById(sale.getId());
+            if (current == null) {
+                return "redirect:/services/salesReport"; // Deleted in the meantime: nothing left to edit
+            }
+            response.setStatus(HttpStatus.CONFLICT.value());
+            model.addAttribute("errorMessage", "This sale was changed by someone else after you opened it. "
+                    + "The form now shows the current values; apply your changes again and resubmit.");
+            model.addAttribute("submitted", sale); // The rejected values, so they are not lost
+            model.addAttribute("sale", current); // The current values and version
+            return "editSale";
+        }
         return "redirect:/services/salesReport"; // Redirect to the sales report page upon successful update
     }
 
@@ -101,4 +223,16 @@ public class SaleController {
         saleService.deleteSaleById(id); // Delete the sale by ID using the service
         return "redirect:/services/salesReport"; // Redirect to the sales report page upon successful deletion
     }
+
+    /**
+     * Handles the deletion of the sales selected in the sales report, with one set-based delete.
+     *
+     * @param ids The IDs of the selected sales; none selected deletes nothing.
+     * @return A redirect to the sales report page.
+     */
+    @PostMapping("/deleteSales")
+    public String deleteSales(@RequestParam(value = "ids", required = false) List<Long> ids) {
+        saleService.deleteSalesByIds(ids); // Delete the selected sales using the service
+        return "redirect:/services/salesReport"; // Redirect to the sales report page upon deletion
+    }
 }
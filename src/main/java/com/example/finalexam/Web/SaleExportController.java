@@ -0,0 +1,50 @@
+package com.example.finalexam.Web;
+
+import com.example.finalexam.Services.SaleExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.io.IOException;
+
+/**
+ * Controller class for full sales exports.
+ * Writes the export directly to the response output stream as rows come off the database cursor.
+ */
+@Controller
+@RequestMapping("/services")
+public class SaleExportController {
+
+    @Autowired
+    private SaleExportService saleExportService; // Service streaming the sales table
+
+    /**
+     * Downloads every sale as CSV.
+     *
+     * @param response The HTTP response the CSV is written to.
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/export.csv")
+    public void exportCsv(HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sales.csv\"");
+        saleExportService.exportCsv(response.getOutputStream());
+    }
+
+    /**
+     * Downloads every sale as newline-delimited JSON.
+     *
+     * @param response The HTTP response the NDJSON is written to.
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/export.ndjson")
+    public void exportNdjson(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sales.ndjson\"");
+        saleExportService.exportNdjson(response.getOutputStream());
+    }
+}
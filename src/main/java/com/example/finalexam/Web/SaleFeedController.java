@@ -0,0 +1,39 @@
+package com.example.finalexam.Web;
+
+import com.example.finalexam.Services.SaleFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controller class for the live sales feed.
+ * Dashboards subscribe once and are pushed committed changes and running totals,
+ * instead of reloading the sales report. The request thread is released as soon as the
+ * connection is registered, so an idle subscriber costs no thread.
+ */
+@Controller
+@RequestMapping("/services")
+public class SaleFeedController {
+
+    @Autowired
+    private SaleFeed saleFeed; // Feed the connections subscribe to
+
+    @Value("${sales.feed.timeout-ms:0}")
+    private long timeoutMillis; // Lifetime of a feed connection; 0 keeps it open until the client leaves
+
+    /**
+     * Opens a server-sent events stream of sale changes and running totals.
+     *
+     * @return The emitter the events are sent through.
+     */
+    @GetMapping(value = "/salesFeed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter salesFeed() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        saleFeed.subscribe(emitter);
+        return emitter;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.finalexam.Web;
+
+import com.example.finalexam.Services.ImportReport;
+import com.example.finalexam.Services.SaleImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Controller class for bulk sales imports.
+ * Accepts either a file uploaded from the import page or a raw CSV/JSON request body from scripts,
+ * and streams it into SaleImportService without buffering the whole file in memory.
+ */
+@Controller
+@RequestMapping("/services")
+public class SaleImportController {
+
+    @Autowired
+    private SaleImportService saleImportService; // Service parsing and storing the uploaded rows
+
+    /**
+     * Displays the bulk import page.
+     *
+     * @return The name of the Thymeleaf template to render.
+     */
+    @GetMapping("/import")
+    public String showImportForm() {
+        return "importSales"; // Return the view name for the import page
+    }
+
+    /**
+     * Imports a file uploaded from the import page. Files ending in .json or .ndjson are read as JSON,
+     * anything else as CSV. Large uploads are spooled to disk by the servlet container, not held in memory.
+     *
+     * @param file The uploaded file.
+     * @param model The model to hold the import report.
+     * @return The name of the Thymeleaf template to render.
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public String importFile(@RequestParam("file") MultipartFile file, Model model) throws IOException {
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        try (InputStream input = file.getInputStream()) {
+            ImportReport report = filename.endsWith(".json") || filename.endsWith(".ndjson")
+                    ? saleImportService.importJson(input)
+                    : saleImportService.importCsv(input);
+            model.addAttribute("report", report); // Add the import report to the model
+        }
+        return "importSales"; // Return the view name for the import page, now showing the report
+    }
+
+    /**
+     * Imports a raw CSV request body, read straight from the request stream.
+     *
+     * @param request The HTTP request carrying the CSV body.
+     * @return The import report as JSON.
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = "text/csv", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ImportReport importCsvBody(HttpServletRequest request) throws IOException {
+        return saleImportService.importCsv(request.getInputStream());
+    }
+
+    /**
+     * Imports a raw JSON (array) or newline-delimited JSON request body, read straight from the request stream.
+     *
+     * @param request The HTTP request carrying the JSON body.
+     * @return The import report as JSON.
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ImportReport importJsonBody(HttpServletRequest request) throws IOException {
+        return saleImportService.importJson(request.getInputStream());
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.finalexam.Web;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SalePage;
+import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SaleValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller exposing sales as JSON for integrations.
+ * Single sales and list pages carry an ETag and a Last-Modified header, so polling clients that send
+ * If-None-Match / If-Modified-Since get an empty 304 response while nothing has changed.
+ * Updates honour If-Match, answering 412 when the client's copy is stale.
+ */
+@RestController
+@RequestMapping("/api/sales")
+public class SaleRestController {
+
+    @Autowired
+    private SaleService saleService; // Service for handling business logic related to sales
+
+    /**
+     * Returns one sale. Spring answers 304 on its own when the request's validators still match.
+     *
+     * @param id The ID of the sale.
+     * @return The sale with its ETag and Last-Modified headers, or 404 if it does not exist.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Sale> getSale(@PathVariable("id") Long id) {
+        Sale sale = saleService.getSaleById(id);
+        if (sale == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return withValidators(ResponseEntity.ok(), sale).body(sale);
+    }
+
+    /**
+     * Returns one keyset page of sales, with the same paging and filter parameters as the HTML report.
+     * The ETag is derived from the IDs and versions of the rows on the page, so it changes whenever
+     * a row on the page is added, edited or removed. There is no Last-Modified: the newest change among the
+     * rows shown does not move when a row is deleted or leaves the page, so If-Modified-Since would
+     * answer 304 for a page that still lists a deleted sale.
+     *
+     * @param filter The filter criteria bound from the query parameters.
+     * @param sort The sort field, "date" or "id".
+     * @param dir The sort direction, "asc" or "desc".
+     * @param afterId The ID of the last sale on the previous page, absent for the first page.
+     * @param afterDate The transaction date of the last sale on the previous page, absent for the first page.
+     * @param size The number of sales per page.
+     * @return The page with its ETag header.
+     */
+    @GetMapping
+    public ResponseEntity<SalePage> listSales(SaleFilter filter,
+                                              @RequestParam(value = "sort", defaultValue = SalePage.SORT_BY_DATE) String sort,
+                                              @RequestParam(value = "dir", defaultValue = "desc") String dir,
+                                              @RequestParam(value = "afterId", required = false) Long afterId,
+                                              @RequestParam(value = "afterDate", required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+                                              @RequestParam(value = "size", defaultValue = "" + SaleService.DEFAULT_PAGE_SIZE) int size) {
+        SalePage page = saleService.getSalesPage(filter, sort, "asc".equalsIgnoreCase(dir), afterId, afterDate, size);
+        long hash = 17;
+        for (Sale sale : page.getSales()) {
+            hash = 31 * hash + sale.getId();
+            hash = 31 * hash + (sale.getVersion() == null ? 0 : sale.getVersion());
+        }
+        return ResponseEntity.ok().eTag("W/\"" + Long.toHexString(hash) + "\"").body(page);
+    }
+
+    /**
+     * Creates a sale. Any ID or version in the body is ignored.
+     *
+     * @param sale The sale to create.
+     * @return 201 with the stored sale and its location, 400 if the sale is invalid,
+     * or 409 if its transaction code is already used.
+     */
+    @PostMapping
+    public ResponseEntity<?> createSale(@RequestBody Sale sale) {
+        String problem = SaleValidator.validate(sale);
+        if (problem != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", problem));
+        }
+        sale.setId(null);
+        sale.setVersion(null);
+        Sale saved;
+        try {
+            saved = saleService.saveSale(sale);
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "transactionCode already exists"));
+        }
+        return withValidators(ResponseEntity.created(URI.create("/api/sales/" + saved.getId())), saved).body(saved);
+    }
+
+    /**
+     * Replaces a sale. When an If-Match header is sent it must match the sale's current ETag,
+     * otherwise the update is refused with 412 so the client can re-read before writing.
+     * The write itself is checked against the version read here, so a change committed in between
+     * is not overwritten either: it is refused with 412 when If-Match was sent, and 409 otherwise.
+     *
+     * @param id The ID of the sale.
+     * @param ifMatch The ETag the client last saw, if any.
+     * @param sale The new contents of the sale.
+     * @return The stored sale, 400 if invalid, 404 if it does not exist, 412 if the client's copy is stale
+     *         or 409 if the sale was changed while being replaced.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateSale(@PathVariable("id") Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestBody Sale sale) {
+        Sale current = saleService.getSaleById(id);
+        if (current == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (ifMatch != null && !"*".equals(ifMatch.trim()) && !ifMatch.trim().equals(etagOf(current))) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("error", "sale was modified"));
+        }
+        String problem = SaleValidator.validate(sale);
+        if (problem != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", problem));
+        }
+        sale.setId(id);
+        sale.setVersion(current.getVersion());
+        Sale saved;
+        try {
+            saved = saleService.saveSale(sale);
+        } catch (OptimisticLockingFailureException e) {
+            HttpStatus status = ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+            return ResponseEntity.status(status).body(Map.of("error", "sale was modified"));
+        }
+        return withValidators(ResponseEntity.ok(), saved).body(saved);
+    }
+
+    /**
+     * Deletes a sale.
+     *
+     * @param id The ID of the sale.
+     * @return 204, or 404 if it does not exist.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSale(@PathVariable("id") Long id) {
+        if (saleService.getSaleById(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        saleService.deleteSaleById(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Creates and replaces many sales in one transaction, with batched statements.
+     * Sales without an ID are created; sales with an ID replace the stored sale, checked against
+     * their version when they carry one.
+     *
+     * @param sales The sales to store.
+     * @return The stored sales in the order given, 400 naming the first invalid sale, 409 if a sale was
+     *         changed since the version it carries or a transaction code is already used; nothing is stored then.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> saveSales(@RequestBody List<Sale> sales) {
+        for (int i = 0; i < sales.size(); i++) {
+            String problem = SaleValidator.validate(sales.get(i));
+            if (problem != null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "sale " + i + ": " + problem));
+            }
+        }
+        try {
+            return ResponseEntity.ok(saleService.saveSales(sales));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "a sale was modified"));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "transactionCode already exists"));
+        }
+    }
+
+    /**
+     * Deletes many sales at once: either the listed IDs, or every sale of a date range.
+     *
+     * @param ids The IDs of the sales to delete.
+     * @param from The first transaction date to delete, with to.
+     * @param to The last transaction date to delete, with from.
+     * @return The number of sales deleted, or 400 unless exactly one of the IDs or the date range is given.
+     */
+    @DeleteMapping
+    public ResponseEntity<?> deleteSales(@RequestParam(value = "ids", required = false) List<Long> ids,
+                                         @RequestParam(value = "from", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam(value = "to", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byRange = from != null && to != null;
+        if (byIds == byRange || !byRange && (from != null || to != null)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "give either ids or both from and to"));
+        }
+        int deleted = byIds ? saleService.deleteSalesByIds(ids) : saleService.deleteSalesBetween(from, to);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
+    }
+
+    /**
+     * Computes the strong ETag of a sale from its ID and version.
+     *
+     * @param sale The sale.
+     * @return The quoted ETag.
+     */
+    private static String etagOf(Sale sale) {
+        return "\"" + sale.getId() + "-" + sale.getVersion() + "\"";
+    }
+
+    /**
+     * Adds the ETag and Last-Modified headers of a sale to a response.
+     */
+    private ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, Sale sale) {
+        response.eTag(etagOf(sale));
+        if (sale.getUpdatedAt() != null) {
+            response.lastModified(sale.getUpdatedAt());
+        }
+        return response;
+    }
+}
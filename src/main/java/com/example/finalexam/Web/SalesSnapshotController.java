@@ -0,0 +1,74 @@
+package com.example.finalexam.Web;
+
+import com.example.finalexam.Services.AnalyticsGrouping;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SalesSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * REST controller for ad-hoc analytical queries over the in-memory sales snapshot.
+ * Queries take the same filter parameters as the sales report, except the transaction code,
+ * and never touch the database; results may lag recent writes by up to the snapshot refresh interval.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class SalesSnapshotController {
+
+    @Autowired
+    private SalesSnapshot salesSnapshot; // Snapshot the queries run on
+
+    /**
+     * Returns the totals of the matching sales grouped by salesman, item type or period.
+     *
+     * @param filter The filter criteria bound from the query parameters.
+     * @param groupBy The dimension to group totals by.
+     * @return The grouped totals, or 400 if the filter cannot be applied.
+     */
+    @GetMapping("/totals")
+    public ResponseEntity<?> getTotals(@ModelAttribute SaleFilter filter,
+                                       @RequestParam(value = "groupBy", defaultValue = "ITEM_TYPE") AnalyticsGrouping groupBy) {
+        return query(() -> salesSnapshot.getTotals(filter, groupBy));
+    }
+
+    /**
+     * Returns the salesmen with the highest totals in each item type.
+     *
+     * @param filter The filter criteria bound from the query parameters.
+     * @param limit The number of salesmen per item type.
+     * @return The top salesmen keyed by item type, or 400 if the filter or limit is invalid.
+     */
+    @GetMapping("/topSalesmen")
+    public ResponseEntity<?> getTopSalesmen(@ModelAttribute SaleFilter filter,
+                                            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return query(() -> salesSnapshot.getTopSalesmen(filter, limit));
+    }
+
+    /**
+     * Returns trailing moving totals of the matching sales for each day.
+     *
+     * @param filter The filter criteria bound from the query parameters.
+     * @param window The length of the moving window, in days.
+     * @return One window per day, or 400 if the filter or window is invalid.
+     */
+    @GetMapping("/movingTotals")
+    public ResponseEntity<?> getMovingTotals(@ModelAttribute SaleFilter filter,
+                                             @RequestParam(value = "window", defaultValue = "7") int window) {
+        return query(() -> salesSnapshot.getMovingTotals(filter, window));
+    }
+
+    /**
+     * Runs a snapshot query, answering 400 with the reason when its parameters are rejected.
+     */
+    private ResponseEntity<?> query(Supplier<?> query) {
+        try {
+            return ResponseEntity.ok(query.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+-- Sales schema as of the first versioned release: the Sale table, the archive of closed periods and the ID sequence.
+-- Column types follow what Hibernate maps the entities to; the production profile validates them at startup.
+create sequence sale_seq start with 1 increment by 50;
+
+create table sale (
+    id bigint not null,
+    name varchar(255),
+    item_type varchar(255),
+    sales_amount_cents bigint not null,
+    currency varchar(3),
+    transaction_code varchar(255),
+    transaction_date date,
+    version bigint,
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    constraint ux_sale_transaction_code unique (transaction_code)
+);
+create index ix_sale_date_id on sale (transaction_date, id);
+create index ix_sale_name_date_id on sale (name, transaction_date, id);
+create index ix_sale_item_type_date_id on sale (item_type, transaction_date, id);
+create index ix_sale_amount on sale (sales_amount_cents);
+
+create table archived_sale (
+    id bigint not null,
+    name varchar(255),
+    item_type varchar(255),
+    sales_amount_cents bigint not null,
+    currency varchar(3),
+    transaction_code varchar(255),
+    transaction_date date,
+    updated_at timestamp(6) with time zone,
+    primary key (id),
+    constraint ux_archived_sale_transaction_code unique (transaction_code)
+);
+create index ix_archived_sale_date_id on archived_sale (transaction_date, id);
+create index ix_archived_sale_name_date_id on archived_sale (name, transaction_date, id);
+create index ix_archived_sale_item_type_date_id on archived_sale (item_type, transaction_date, id);
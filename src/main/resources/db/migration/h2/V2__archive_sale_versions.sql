@@ -0,0 +1,5 @@
+-- Archived sales keep the version they had in the Sale table, so a sale moved back for an update
+-- continues from it instead of starting over at 0 and reusing versions (and ETags) it already had.
+-- Sales archived before this migration have none and are moved back with version 0, as before.
+-- Databases created by ddl-auto=update (baselined at version 1) may have the column already.
+alter table archived_sale add column if not exists version bigint;
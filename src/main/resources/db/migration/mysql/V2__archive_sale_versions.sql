@@ -0,0 +1,11 @@
+-- Archived sales keep the version they had in the Sale table, so a sale moved back for an update
+-- continues from it instead of starting over at 0 and reusing versions (and ETags) it already had.
+-- Sales archived before this migration have none and are moved back with version 0, as before.
+-- Databases created by ddl-auto=update (baselined at version 1) may have the column already; MySQL has no
+-- "add column if not exists", so the statement is picked from the information schema.
+set @add_version = (select if(count(*) = 0, 'alter table archived_sale add column version bigint', 'do 0')
+                    from information_schema.columns
+                    where table_schema = database() and table_name = 'archived_sale' and column_name = 'version');
+prepare add_version from @add_version;
+execute add_version;
+deallocate prepare add_version;
@@ -0,0 +1,89 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleArchiveService;
+import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SalesRollup;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for the production profile.
+ * Starts the application on its own in-memory H2 database with the schema created by the Flyway
+ * migrations, which Hibernate validates against the entities, so a migration that drifts from
+ * the entities fails this test.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:prod-profile")
+@ActiveProfiles("prod")
+public class ProdProfileTest {
+
+    @Autowired
+    private Flyway flyway; // Migrations applied at startup
+
+    @Autowired
+    private SaleService saleService; // Service storing and reading sales on the migrated schema
+
+    @Autowired
+    private ConfigurableApplicationContext context; // Context whose lazy and eager beans are checked
+
+    /**
+     * Tests that the migrations were applied and that sales can be stored and read back.
+     */
+    @Test
+    public void testMigratedSchemaStoresSales() {
+        assertEquals("2", flyway.info().current().getVersion().getVersion());
+
+        Sale sale = new Sale();
+        sale.setName("Prod Profile");
+        sale.setItemType("Refrigerator");
+        sale.setSalesAmountCents(12_345);
+        sale.setTransactionDate(LocalDate.of(2024, 8, 1));
+        Sale saved = saleService.saveSale(sale);
+        assertEquals(12_345, saleService.getSaleById(saved.getId()).getSalesAmountCents());
+    }
+
+    /**
+     * Tests that beans doing startup work were created at startup despite lazy initialization.
+     */
+    @Test
+    public void testStartupBeansAreEager() {
+        assertTrue(context.getBeanFactory().containsSingleton(beanName(SalesRollup.class)));
+        assertTrue(context.getBeanFactory().containsSingleton(beanName(SaleArchiveService.class)));
+    }
+
+    /**
+     * Tests that a database created by ddl-auto=update from the current entities, so without a migration history
+     * but with every column already, is baselined at version 1 and migrated to the latest version.
+     */
+    @Test
+    public void testMigratesDatabaseCreatedByHibernate() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:prod-profile-ddl-auto;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/h2/V1__create_sales.sql")).execute(dataSource);
+        new JdbcTemplate(dataSource).execute("alter table archived_sale add column version bigint"); // Added by ddl-auto=update
+
+        Flyway baselined = Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2")
+                .baselineOnMigrate(true).load();
+        baselined.migrate();
+        assertEquals(flyway.info().current().getVersion(), baselined.info().current().getVersion());
+    }
+
+    /**
+     * Gets the name of the only bean of a type.
+     */
+    private String beanName(Class<?> type) {
+        return context.getBeanNamesForType(type)[0];
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Config.ReplicaRoutingDataSource;
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for read-replica routing.
+ * Runs on two separate in-memory H2 databases standing in for the primary and the replica. Nothing replicates
+ * between them, so whether a read saw a sale shows which database served it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "sales.replica.url=jdbc:h2:mem:routing-replica",
+        "sales.replica.read-your-writes-ms=60000"
+})
+public class ReplicaRoutingTest {
+
+    private static final long REPLICA_ONLY_ID = 1_000_000L; // Sale stored only in the replica
+    private static final long BOTH_ID = 1_000_001L; // Sale stored in both databases, changed only in the primary
+    private static boolean replicaCreated; // Whether the replica schema exists
+
+    @Autowired
+    private SaleService saleService; // Service whose reads are routed
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource; // Replica pool, used to set up the replica directly
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource; // Primary pool, used to store a row the replica has too
+
+    /**
+     * Creates the replica schema from the migrations and stores a sale the primary does not have.
+     */
+    @BeforeEach
+    public void createReplica() {
+        if (!replicaCreated) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/migration/h2/V1__create_sales.sql"),
+                    new ClassPathResource("db/migration/h2/V2__archive_sale_versions.sql")).execute(replicaDataSource);
+            new JdbcTemplate(replicaDataSource).update("insert into sale (id, name, item_type, sales_amount_cents, currency,"
+                    + " transaction_code, transaction_date, version) values (?, 'Replica Only', 'Refrigerator', 100, 'USD',"
+                    + " 'REPLICA-ONLY', ?, 0)", REPLICA_ONLY_ID, LocalDate.of(2016, 1, 1));
+            replicaCreated = true;
+        }
+    }
+
+    /**
+     * Unbinds the simulated requests.
+     */
+    @AfterEach
+    public void endRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * Tests that read-only service methods read from the replica and writes go to the primary,
+     * with no client to keep on the primary outside a request.
+     */
+    @Test
+    public void testReadsUseReplica() {
+        RequestContextHolder.resetRequestAttributes(); // Outside a request, like the scheduled jobs
+        Sale saved = saleService.saveSale(newSale("Primary Writer"));
+
+        assertEquals("Replica Only", saleService.getSaleById(REPLICA_ONLY_ID).getName());
+        assertTrue(saleService.getAllSales().stream().anyMatch(sale -> sale.getId() == REPLICA_ONLY_ID));
+        assertTrue(saleService.getAllSales().stream().noneMatch(sale -> sale.getId().equals(saved.getId())));
+    }
+
+    /**
+     * Tests that a client reads its own writes from the primary, within the request that wrote and in
+     * later requests carrying the cookie, while other clients keep reading from the replica.
+     */
+    @Test
+    public void testClientReadsOwnWrites() {
+        MockHttpServletResponse response = startRequest();
+        Sale saved = saleService.saveSale(newSale("Own Writer"));
+        assertTrue(containsSale(saved), "the request that wrote reads from the primary");
+        Cookie cookie = response.getCookie(ReplicaRoutingDataSource.PRIMARY_UNTIL_COOKIE);
+        assertNotNull(cookie);
+
+        startRequest();
+        assertFalse(containsSale(saved), "another client reads from the replica");
+
+        startRequest(cookie);
+        assertTrue(containsSale(saved), "the writer's next request reads from the primary");
+
+        startRequest(new Cookie(ReplicaRoutingDataSource.PRIMARY_UNTIL_COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        assertFalse(containsSale(saved), "an expired cookie reads from the replica again");
+    }
+
+    /**
+     * Tests that a stale row cached from the replica by another client is not served to a client
+     * reading its own writes, since a cache hit would bypass the routing.
+     */
+    @Test
+    public void testClientDoesNotReadOwnWritesFromCache() {
+        String insert = "insert into sale (id, name, item_type, sales_amount_cents, currency, transaction_code,"
+                + " transaction_date, version) values (?, 'Before Edit', 'Refrigerator', 100, 'USD', 'BOTH', ?, 0)";
+        new JdbcTemplate(primaryDataSource).update(insert, BOTH_ID, LocalDate.of(2016, 3, 1));
+        new JdbcTemplate(replicaDataSource).update(insert, BOTH_ID, LocalDate.of(2016, 3, 1));
+
+        MockHttpServletResponse response = startRequest();
+        Sale edit = saleService.getSaleById(BOTH_ID).copy();
+        edit.setName("After Edit");
+        saleService.saveSale(edit);
+        Cookie cookie = response.getCookie(ReplicaRoutingDataSource.PRIMARY_UNTIL_COOKIE);
+
+        startRequest();
+        assertEquals("Before Edit", saleService.getSaleById(BOTH_ID).getName(), "another client reads and caches the replica's row");
+
+        startRequest(cookie);
+        assertEquals("After Edit", saleService.getSaleById(BOTH_ID).getName(), "the writer skips the cache");
+    }
+
+    /**
+     * Binds a new simulated request, with the given cookies, to the current thread.
+     *
+     * @return the response of the request
+     */
+    private MockHttpServletResponse startRequest(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (cookies.length > 0) {
+            request.setCookies(cookies);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    /**
+     * Tells whether the full sales list read by the service includes a sale.
+     */
+    private boolean containsSale(Sale sale) {
+        return saleService.getAllSales().stream().anyMatch(stored -> stored.getId().equals(sale.getId()));
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale(String name) {
+        Sale sale = new Sale();
+        sale.setName(name);
+        sale.setItemType("Refrigerator");
+        sale.setSalesAmountCents(1_000);
+        sale.setTransactionDate(LocalDate.of(2016, 2, 1));
+        return sale;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.AnalyticsGrouping;
+import com.example.finalexam.Services.SaleArchiveService;
+import com.example.finalexam.Services.SaleExportService;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SalePage;
+import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SalesAggregate;
+import com.example.finalexam.Services.SalesAnalyticsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for the archival of closed sales periods.
+ * Moves sales into the archive table of the in-memory H2 database and reads them back through the services.
+ * Uses sales from 2019, older than any other test's, and its own cutoff instead of the nightly schedule.
+ */
+@SpringBootTest(properties = "sales.archive.cron=-")
+public class SaleArchiveTest {
+
+    private static final LocalDate CUTOFF = LocalDate.of(2019, 2, 1); // First date kept in the Sale table
+
+    @Autowired
+    private SaleService saleService; // Service whose reads must cover both tables
+
+    @Autowired
+    private SaleArchiveService saleArchiveService; // Service under test
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService; // Service whose totals must not change
+
+    @Autowired
+    private SaleExportService saleExportService; // Service streaming the full report over both tables
+
+    @PersistenceContext
+    private EntityManager entityManager; // Persistence context the streamed sales must not stay in
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository used to check the hot table
+
+    @Autowired
+    private ArchivedSaleRepository archivedSaleRepository; // Repository used to check the archive
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Stores archived rows directly, like another instance's archival run
+
+    /**
+     * Tests that archiving moves only the closed period, and that reports, lookups and totals
+     * read the same sales before and after the move.
+     */
+    @Test
+    public void testArchivedSalesStayVisible() {
+        Sale january = saleService.saveSale(newSale("Archivist", 10_000, LocalDate.of(2019, 1, 10)));
+        Sale lateJanuary = saleService.saveSale(newSale("Archivist", 30_000, LocalDate.of(2019, 1, 20)));
+        Sale february = saleService.saveSale(newSale("Archivist", 20_000, LocalDate.of(2019, 2, 5)));
+        LocalDate from = LocalDate.of(2019, 1, 1);
+        LocalDate to = LocalDate.of(2019, 12, 31);
+        SalesAggregate before = salesAnalyticsService.getTotals(AnalyticsGrouping.SALESMAN, from, to, true).stream()
+                .filter(row -> "Archivist".equals(row.getLabel())).findFirst().orElseThrow();
+
+        assertTrue(saleArchiveService.archiveBefore(CUTOFF) >= 2);
+
+        assertTrue(saleRepository.findById(january.getId()).isEmpty());
+        assertTrue(archivedSaleRepository.findById(january.getId()).isPresent());
+        assertTrue(saleRepository.findById(february.getId()).isPresent());
+        assertFalse(saleArchiveService.getWatermark().isBefore(CUTOFF));
+
+        assertEquals("Archivist", saleService.getSaleById(lateJanuary.getId()).getName());
+        assertEquals(january.getTransactionCode(), saleService.getSaleById(january.getId()).getTransactionCode());
+
+        SaleFilter filter = new SaleFilter();
+        filter.setNamePrefix("Archivist");
+        SalePage first = saleService.getSalesPage(filter, SalePage.SORT_BY_DATE, true, null, null, 2);
+        SalePage second = saleService.getSalesPage(filter, SalePage.SORT_BY_DATE, true,
+                first.getNextAfterId(), first.getNextAfterDate(), 2);
+        assertEquals(List.of(january.getId(), lateJanuary.getId()), first.getSales().stream().map(Sale::getId).toList());
+        assertEquals(List.of(february.getId()), second.getSales().stream().map(Sale::getId).toList());
+
+        List<Long> streamed = new ArrayList<>();
+        assertEquals(3, saleExportService.streamReport(filter, SalePage.SORT_BY_DATE, false, sales -> {
+            Sale previous = null;
+            while (sales.hasNext()) {
+                Sale sale = sales.next();
+                assertTrue(previous == null || !entityManager.contains(previous)); // Released once the next row is read
+                streamed.add(sale.getId());
+                previous = sale;
+            }
+        }));
+        assertEquals(List.of(february.getId(), lateJanuary.getId(), january.getId()), streamed);
+
+        filter.setFromDate(CUTOFF);
+        assertEquals(List.of(february.getId()), saleService.getSalesPage(filter, SalePage.SORT_BY_DATE, false, null, null, 10)
+                .getSales().stream().map(Sale::getId).toList());
+
+        SalesAggregate after = salesAnalyticsService.getTotals(AnalyticsGrouping.SALESMAN, from, to, true).stream()
+                .filter(row -> "Archivist".equals(row.getLabel())).findFirst().orElseThrow();
+        assertEquals(3, after.getSaleCount());
+        assertEquals(before.getTotalCents(), after.getTotalCents());
+        assertEquals(new BigDecimal("200.00"), after.getP50());
+        assertEquals(before.getP90(), after.getP90());
+    }
+
+    /**
+     * Tests that updating an archived sale moves it back into the Sale table, and that deleting
+     * an archived sale removes it from the archive and from the totals.
+     */
+    @Test
+    public void testUpdateAndDeleteArchivedSales() {
+        Sale updated = saleService.saveSale(newSale("Archive Editor", 10_000, LocalDate.of(2019, 1, 3)));
+        Sale deleted = saleService.saveSale(newSale("Archive Editor", 5_000, LocalDate.of(2019, 1, 4)));
+        saleArchiveService.archiveBefore(CUTOFF);
+        assertTrue(archivedSaleRepository.findById(updated.getId()).isPresent());
+
+        Sale edit = saleService.getSaleById(updated.getId());
+        edit.setSalesAmountCents(15_000);
+        saleService.saveSale(edit);
+        assertEquals(15_000, saleRepository.findById(updated.getId()).orElseThrow().getSalesAmountCents());
+        assertTrue(archivedSaleRepository.findById(updated.getId()).isEmpty());
+
+        saleService.deleteSaleById(deleted.getId());
+        assertNull(saleService.getSaleById(deleted.getId()));
+
+        SalesAggregate totals = salesAnalyticsService.getTotals(AnalyticsGrouping.SALESMAN,
+                        LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31), false).stream()
+                .filter(row -> "Archive Editor".equals(row.getLabel())).findFirst().orElseThrow();
+        assertEquals(1, totals.getSaleCount());
+        assertEquals(15_000, totals.getTotalCents());
+    }
+
+    /**
+     * Tests that a sale keeps its version through the archive, so an edit made from a copy read before
+     * an earlier update is still refused once the sale is moved back, and versions are not reused.
+     */
+    @Test
+    public void testArchivedSalesKeepVersion() {
+        Sale sale = saleService.saveSale(newSale("Archive Versions", 10_000, LocalDate.of(2019, 1, 5)));
+        Sale stale = saleService.getSaleById(sale.getId()).copy();
+        Sale edit = saleService.getSaleById(sale.getId()).copy();
+        edit.setSalesAmountCents(11_000);
+        Long version = saleService.saveSale(edit).getVersion();
+        saleArchiveService.archiveBefore(CUTOFF);
+
+        Sale archived = saleService.getSaleById(sale.getId()).copy();
+        assertEquals(version + 1, archived.getVersion()); // Bumped when the archival job locked the row
+        assertEquals(archived.getVersion(), archivedSaleRepository.findById(sale.getId()).orElseThrow().getVersion());
+
+        stale.setSalesAmountCents(12_000);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> saleService.saveSale(stale));
+
+        archived.setSalesAmountCents(13_000);
+        Sale saved = saleService.saveSale(archived);
+        assertEquals(version + 2, saved.getVersion());
+        assertEquals(13_000, saleRepository.findById(sale.getId()).orElseThrow().getSalesAmountCents());
+    }
+
+    /**
+     * Tests that the watermark follows sales archived by another instance, read from the shared archive.
+     */
+    @Test
+    public void testWatermarkFollowsOtherInstances() {
+        LocalDate otherCutoff = LocalDate.of(2019, 7, 1);
+        jdbcTemplate.update("insert into archived_sale (id, name, item_type, sales_amount_cents, currency, transaction_code,"
+                + " transaction_date, version) values (?, 'Other Instance', 'Refrigerator', 100, 'USD', 'OTHER-INSTANCE', ?, 0)",
+                2_000_000L, otherCutoff.minusDays(1));
+
+        saleArchiveService.refreshWatermark(); // The scheduled refresh
+        assertEquals(otherCutoff, saleArchiveService.getWatermark());
+        SaleFilter filter = new SaleFilter();
+        filter.setNamePrefix("Other Instance");
+        filter.setFromDate(LocalDate.of(2019, 6, 1));
+        assertEquals(List.of(2_000_000L), saleService.getSalesPage(filter, SalePage.SORT_BY_DATE, true, null, null, 10)
+                .getSales().stream().map(Sale::getId).toList());
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale(String name, long amountCents, LocalDate date) {
+        Sale sale = new Sale();
+        sale.setName(name);
+        sale.setItemType("Washing Machine");
+        sale.setSalesAmountCents(amountCents);
+        sale.setTransactionDate(date);
+        return sale;
+    }
+}
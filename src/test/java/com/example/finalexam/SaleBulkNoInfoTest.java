@@ -0,0 +1,166 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.SaleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for batched sale updates on a driver that reports no update counts.
+ * The data source is wrapped so the batched UPDATE answers SUCCESS_NO_INFO for every row, as MySQL does
+ * with rewriteBatchedStatements. Uses sales from 2016, older than any other test's.
+ */
+@SpringBootTest
+public class SaleBulkNoInfoTest {
+
+    @Autowired
+    private SaleService saleService; // Service used to store and read the sales
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository under test
+
+    /**
+     * Tests that a batch the driver reports no counts for is still checked: matching versions are saved and
+     * a stale version in the batch refuses the whole call. The batch is written through the repository, since
+     * the service already refuses versions that are stale when it reads the stored rows.
+     */
+    @Test
+    public void testStaleVersionWithoutUpdateCounts() {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sales.add(newSale(3_000 + i, LocalDate.of(2016, 4, 1 + i)));
+        }
+        List<Sale> created = saleService.saveSales(sales);
+
+        List<Sale> changes = new ArrayList<>();
+        for (Sale sale : created) {
+            Sale change = saleService.getSaleById(sale.getId()).copy();
+            change.setSalesAmountCents(change.getSalesAmountCents() + 100);
+            changes.add(change);
+        }
+        Sale stale = changes.get(1).copy(); // Keeps the version before the update
+        saleRepository.updateAllInBatch(changes, Instant.now());
+        assertEquals(3_101, saleRepository.findById(stale.getId()).orElseThrow().getSalesAmountCents());
+
+        Sale current = saleRepository.findById(created.get(0).getId()).orElseThrow().copy();
+        current.setSalesAmountCents(8_888);
+        stale.setSalesAmountCents(9_999);
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> saleRepository.updateAllInBatch(List.of(current, stale), Instant.now()));
+        assertEquals(3_101, saleRepository.findById(stale.getId()).orElseThrow().getSalesAmountCents());
+        assertEquals(3_100, saleRepository.findById(current.getId()).orElseThrow().getSalesAmountCents());
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale(long amountCents, LocalDate date) {
+        Sale sale = new Sale();
+        sale.setName("Rewritten Batch");
+        sale.setItemType("Dishwasher");
+        sale.setSalesAmountCents(amountCents);
+        sale.setTransactionDate(date);
+        return sale;
+    }
+
+    /**
+     * Wraps the data source so batched sale UPDATEs report SUCCESS_NO_INFO instead of their counts.
+     */
+    @TestConfiguration
+    static class NoInfoConfig {
+
+        /**
+         * Wraps the application data source.
+         */
+        @Bean
+        static BeanPostProcessor noInfoDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? new NoInfoDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * A data source whose connections hide the update counts of batched sale UPDATEs.
+     */
+    static class NoInfoDataSource extends DelegatingDataSource {
+
+        /**
+         * Wraps a data source.
+         */
+        NoInfoDataSource(DataSource target) {
+            super(target);
+        }
+
+        /**
+         * Gets a connection whose sale UPDATE statements hide their batch counts.
+         */
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                                && ((String) args[0]).startsWith("update sale set")) {
+                            return hideCounts(statement);
+                        }
+                        return result;
+                    });
+        }
+
+        /**
+         * Wraps a statement so executeBatch answers SUCCESS_NO_INFO for every row.
+         */
+        private PreparedStatement hideCounts(PreparedStatement statement) {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        Object result = invoke(statement, method, args);
+                        if (method.getName().equals("executeBatch")) {
+                            int[] counts = new int[((int[]) result).length];
+                            Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                            return counts;
+                        }
+                        return result;
+                    });
+        }
+
+        /**
+         * Calls a method on the wrapped object, rethrowing what it throws.
+         */
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SalesAggregate;
+import com.example.finalexam.Services.SalesRollup;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for the bulk save and delete operations.
+ * Uses sales from 2017, older than any other test's, and counts the JDBC statements Hibernate prepares.
+ * The archive watermark refresh is pushed out so no background statement lands in a count.
+ */
+@SpringBootTest(properties = "sales.archive.watermark-refresh-ms=3600000")
+public class SaleBulkTest {
+
+    private static final int SALES = 20; // Sales written per bulk call
+
+    @Autowired
+    private SaleService saleService; // Service under test
+
+    @Autowired
+    private SalesRollup salesRollup; // Rollup that must follow the bulk writes
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // Source of the Hibernate statement statistics
+
+    /**
+     * Tests that many new sales, and then changes to all of them, are each written with a few batched
+     * statements, that a stale version refuses the whole call, and that a known code is not inserted twice.
+     */
+    @Test
+    public void testSaveSalesInBatches() {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            sales.add(newSale("Bulk Saver", 1_000 + i, LocalDate.of(2017, 3, 1 + i)));
+        }
+        SalesAggregate before = salesRollup.getOverall();
+        long statements = statements();
+        List<Sale> created = saleService.saveSales(sales);
+        assertTrue(statements() - statements <= 3, "one batched INSERT, at most two sequence calls");
+        assertEquals(SALES, created.size());
+        assertEquals(before.getSaleCount() + SALES, salesRollup.getOverall().getSaleCount());
+
+        List<Sale> changes = new ArrayList<>();
+        for (Sale sale : created) {
+            Sale change = copy(saleService.getSaleById(sale.getId()));
+            change.setSalesAmountCents(change.getSalesAmountCents() + 500);
+            changes.add(change);
+        }
+        Sale stale = copy(changes.get(1)); // Keeps the version before the update
+        statements = statements();
+        List<Sale> updated = saleService.saveSales(changes);
+        assertTrue(statements() - statements <= 1, "one SELECT of the stored rows, the UPDATEs sent as a JDBC batch");
+        assertEquals(1_500, saleService.getSaleById(updated.get(0).getId()).getSalesAmountCents());
+        assertEquals(before.getTotalCents() + sumCents(sales) + 500L * SALES, salesRollup.getOverall().getTotalCents());
+
+        stale.setSalesAmountCents(9_999);
+        Sale fresh = newSale("Bulk Saver", 7_000, LocalDate.of(2017, 3, 28));
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> saleService.saveSales(List.of(fresh, stale)));
+        assertEquals(1_501, saleService.getSaleById(stale.getId()).getSalesAmountCents());
+        assertNull(fresh.getId() == null ? null : saleService.getSaleById(fresh.getId()));
+
+        Sale resubmitted = newSale("Bulk Saver", 1_000, LocalDate.of(2017, 3, 1));
+        resubmitted.setTransactionCode(created.get(0).getTransactionCode());
+        assertEquals(created.get(0).getId(), saleService.saveSales(List.of(resubmitted)).get(0).getId());
+    }
+
+    /**
+     * Tests that deleting by IDs and by date range uses a few set-based statements and keeps the rollup exact.
+     */
+    @Test
+    public void testDeleteSalesSetBased() {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            sales.add(newSale("Bulk Deleter", 2_000 + i, LocalDate.of(2017, 5, 1 + i)));
+        }
+        List<Sale> created = saleService.saveSales(sales);
+        SalesAggregate before = salesRollup.getOverall();
+
+        long statements = statements();
+        int deleted = saleService.deleteSalesByIds(List.of(created.get(0).getId(), created.get(1).getId(), Long.MAX_VALUE));
+        assertTrue(statements() - statements <= 7, "lock, IDs, totals and delete, the archive only for the unknown ID");
+        assertEquals(2, deleted);
+        assertNull(saleService.getSaleById(created.get(0).getId()));
+        assertEquals(before.getSaleCount() - 2, salesRollup.getOverall().getSaleCount());
+        assertEquals(before.getTotalCents() - 2_000 - 2_001, salesRollup.getOverall().getTotalCents());
+
+        statements = statements();
+        deleted = saleService.deleteSalesBetween(LocalDate.of(2017, 5, 1), LocalDate.of(2017, 5, 31));
+        assertTrue(statements() - statements <= 7, "lock, IDs, totals and delete per table");
+        assertEquals(SALES - 2, deleted);
+        assertNull(saleService.getSaleById(created.get(SALES - 1).getId()));
+        assertEquals(before.getSaleCount() - SALES, salesRollup.getOverall().getSaleCount());
+        assertEquals(before.getTotalCents() - sumCents(sales), salesRollup.getOverall().getTotalCents());
+        assertEquals(0, saleService.deleteSalesBetween(LocalDate.of(2017, 5, 1), LocalDate.of(2017, 5, 31)));
+    }
+
+    /**
+     * Reads the number of JDBC statements prepared so far.
+     */
+    private long statements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Adds up the amounts of some sales.
+     */
+    private long sumCents(List<Sale> sales) {
+        return sales.stream().mapToLong(Sale::getSalesAmountCents).sum();
+    }
+
+    /**
+     * Copies a sale the way a client submits it: a new object with every field and the version.
+     */
+    private Sale copy(Sale sale) {
+        Sale copy = new Sale();
+        copy.setId(sale.getId());
+        copy.setVersion(sale.getVersion());
+        copy.setName(sale.getName());
+        copy.setItemType(sale.getItemType());
+        copy.setSalesAmountCents(sale.getSalesAmountCents());
+        copy.setCurrency(sale.getCurrency());
+        copy.setTransactionCode(sale.getTransactionCode());
+        copy.setTransactionDate(sale.getTransactionDate());
+        return copy;
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale(String name, long amountCents, LocalDate date) {
+        Sale sale = new Sale();
+        sale.setName(name);
+        sale.setItemType("Washing Machine");
+        sale.setSalesAmountCents(amountCents);
+        sale.setTransactionDate(date);
+        return sale;
+    }
+}
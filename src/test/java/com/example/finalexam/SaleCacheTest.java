@@ -0,0 +1,105 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Config.CacheConfig;
+import com.example.finalexam.Config.ReplicaLagCacheManager;
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SalePage;
+import com.example.finalexam.Services.SaleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for the sale caches.
+ * Checks that lookups are served from the cache and that writes evict stale entries.
+ */
+@SpringBootTest
+public class SaleCacheTest {
+
+    @Autowired
+    private SaleService saleService; // Caching proxy of the service under test
+
+    @Autowired
+    private CacheManager cacheManager; // Cache manager holding the sale caches
+
+    /**
+     * Tests that a sale is cached on first read and evicted when it is updated.
+     */
+    @Test
+    public void testGetSaleByIdCachedAndEvictedOnSave() {
+        Sale sale = saleService.saveSale(newSale("John Doe", 10_000));
+
+        Sale first = saleService.getSaleById(sale.getId());
+        assertSame(first, saleService.getSaleById(sale.getId()));
+        assertNotNull(cacheManager.getCache(CacheConfig.SALES_CACHE).get(sale.getId()));
+
+        first.setSalesAmountCents(25_000);
+        saleService.saveSale(first);
+        assertNull(cacheManager.getCache(CacheConfig.SALES_CACHE).get(sale.getId()));
+        assertEquals(25_000, saleService.getSaleById(sale.getId()).getSalesAmountCents());
+    }
+
+    /**
+     * Tests that cached report pages are evicted when a sale is updated or deleted.
+     */
+    @Test
+    public void testSalesPageEvictedOnWrite() {
+        Sale sale = saleService.saveSale(newSale("Ann Lee", 7_500));
+        long afterId = sale.getId() - 1; // Page key starting at the new sale, independent of other test data
+
+        SalePage before = saleService.getSalesPage(SalePage.SORT_BY_ID, true, afterId, null, 5);
+        assertSame(before, saleService.getSalesPage(SalePage.SORT_BY_ID, true, afterId, null, 5));
+        assertEquals(7_500, before.getSales().get(0).getSalesAmountCents());
+
+        Sale edited = saleService.getSaleById(sale.getId());
+        edited.setSalesAmountCents(8_000);
+        saleService.saveSale(edited);
+        SalePage after = saleService.getSalesPage(SalePage.SORT_BY_ID, true, afterId, null, 5);
+        assertEquals(8_000, after.getSales().get(0).getSalesAmountCents());
+
+        saleService.deleteSaleById(sale.getId());
+        assertNull(saleService.getSaleById(sale.getId()));
+        assertTrue(saleService.getSalesPage(SalePage.SORT_BY_ID, true, afterId, null, 5).getSales().stream()
+                .noneMatch(row -> row.getId().equals(sale.getId())));
+    }
+
+    /**
+     * Tests that with a read replica every eviction is repeated after the replica lag, dropping a row
+     * cached from the replica in between.
+     */
+    @Test
+    public void testReplicaLagEvictionRepeated() throws Exception {
+        Cache cache = new ReplicaLagCacheManager(new ConcurrentMapCacheManager(CacheConfig.SALES_CACHE), 100)
+                .getCache(CacheConfig.SALES_CACHE);
+        cache.put(1L, "stored");
+        cache.evict(1L);
+        assertNull(cache.get(1L));
+        cache.put(1L, "read from the replica before it caught up");
+        assertNotNull(cache.get(1L));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.get(1L) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNull(cache.get(1L));
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale(String name, long amountCents) {
+        Sale sale = new Sale();
+        sale.setName(name);
+        sale.setItemType("Refrigerator");
+        sale.setSalesAmountCents(amountCents);
+        sale.setTransactionDate(LocalDate.of(2024, 8, 1));
+        return sale;
+    }
+}
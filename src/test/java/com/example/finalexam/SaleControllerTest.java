@@ -1,38 +1,66 @@
 package com.example.finalexam;
 import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleExportService;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SalePage;
 import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SaleWriteBehind;
+import com.example.finalexam.Services.TransactionCodeGenerator;
 import com.example.finalexam.Web.SaleController;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.function.ThrowingConsumer;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.view.InternalResourceViewResolver;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Test class for the SaleController.
  * This class verifies the behavior of the SaleController by testing its various endpoints.
+ * The controller runs in a standalone MockMvc setup with Mockito mocks, without a Spring context.
  */
-@WebMvcTest(SaleController.class)  // Indicates that this is a Spring MVC test focusing on the SaleController.
 public class SaleControllerTest {
 
-    @Autowired
     private MockMvc mockMvc;  // MockMvc is used to perform and verify HTTP requests and responses.
 
     @Mock
     private SaleService saleService;  // Mocking the SaleService to simulate interactions with the service layer.
 
+    @Mock
+    private SaleWriteBehind saleWriteBehind;  // Disabled write-behind queue: sales are saved directly.
+
+    @Mock
+    private SaleExportService saleExportService;  // Streams the rows of the full report.
+
+    @Mock
+    private ObjectProvider<ThymeleafViewResolver> viewResolver;  // Provides the resolver of the full report view.
+
+    @Spy
+    private TransactionCodeGenerator transactionCodeGenerator = new TransactionCodeGenerator();  // Real generator for the form's code.
+
     @InjectMocks
     private SaleController saleController;  // Injecting the mocked SaleService into the SaleController.
 
@@ -42,7 +70,9 @@ public class SaleControllerTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);  // Initialize mocks.
-        mockMvc = MockMvcBuilders.standaloneSetup(saleController).build();  // Set up MockMvc for the SaleController.
+        mockMvc = MockMvcBuilders.standaloneSetup(saleController)
+                .setViewResolvers(new InternalResourceViewResolver("/templates/", ".html"))  // View names must not resolve to the request path.
+                .build();  // Set up MockMvc for the SaleController.
     }
 
     /**
@@ -51,10 +81,12 @@ public class SaleControllerTest {
      */
     @Test
     public void testShowSalesForm() throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders.get("/services/sales"))  // Perform a GET request to /services/sales.
+        Sale sale = (Sale) mockMvc.perform(MockMvcRequestBuilders.get("/services/sales"))  // Perform a GET request to /services/sales.
                 .andExpect(status().isOk())  // Expect HTTP 200 status.
                 .andExpect(MockMvcResultMatchers.view().name("salesForm"))  // Expect the salesForm view.
-                .andExpect(MockMvcResultMatchers.model().attributeExists("sale"));  // Expect the model to have a "sale" attribute.
+                .andExpect(MockMvcResultMatchers.model().attributeExists("sale"))  // Expect the model to have a "sale" attribute.
+                .andReturn().getModelAndView().getModel().get("sale");
+        assertNotNull(sale.getTransactionCode());  // Expect the form to carry its transaction code already.
     }
 
     /**
@@ -66,34 +98,149 @@ public class SaleControllerTest {
         Sale sale = new Sale();
         sale.setName("Jessica Lam");
         sale.setItemType("Washing Machine");
-        sale.setSalesAmount(5000.0);
+        sale.setSalesAmountCents(500_000);
         sale.setTransactionCode("23");
 
         mockMvc.perform(MockMvcRequestBuilders.post("/services/saveSale")  // Perform a POST request to /services/saveSale.
                         .param("name", "Jessica Lam")
                         .param("itemType", "Washing Machine")
                         .param("salesAmount", "5000.0")
-                        .param("transactionCode", "23"))
+                        .param("transactionCode", "23")
+                        .param("transactionDate", "2024-01-15"))
                 .andExpect(status().is3xxRedirection())  // Expect HTTP 3xx redirection status.
                 .andExpect(MockMvcResultMatchers.redirectedUrl("/services/salesReport"));  // Expect redirection to /services/salesReport.
+
+        verify(saleService, times(1)).saveSale(any(Sale.class));  // Verify that the sale was saved directly.
+    }
+
+    /**
+     * Test case for saving a sale while the write-behind queue is full.
+     * Verifies that the form is shown again with 503 and Retry-After instead of the sale being saved.
+     */
+    @Test
+    public void testSaveSaleQueueFull() throws Exception {
+        when(saleWriteBehind.isEnabled()).thenReturn(true);
+        when(saleWriteBehind.submit(any(Sale.class))).thenReturn(false);  // Simulate a full queue.
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/services/saveSale")
+                        .param("name", "Jessica Lam")
+                        .param("itemType", "Washing Machine")
+                        .param("salesAmount", "5000.0")
+                        .param("transactionDate", "2024-01-15"))
+                .andExpect(status().isServiceUnavailable())  // Expect HTTP 503 status.
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(MockMvcResultMatchers.view().name("salesForm"))
+                .andExpect(MockMvcResultMatchers.model().attributeExists("errorMessage"));
+
+        verify(saleService, never()).saveSale(any(Sale.class));
+    }
+
+    /**
+     * Test case for saving an incomplete sale.
+     * Verifies that the form is shown again with the validation message.
+     */
+    @Test
+    public void testSaveSaleInvalid() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/services/saveSale")
+                        .param("name", "Jessica Lam")
+                        .param("itemType", "Washing Machine")
+                        .param("salesAmount", "5000.0"))  // No transaction date.
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("salesForm"))
+                .andExpect(MockMvcResultMatchers.model().attribute("errorMessage", "All fields must be filled out correctly."));
+
+        verify(saleService, never()).saveSale(any(Sale.class));
+    }
+
+    /**
+     * Test case for saving a sale whose amount has more decimal places than its currency allows.
+     * Verifies that the form is shown again with the validation message instead of a bare 400.
+     */
+    @Test
+    public void testSaveSaleTooManyDecimals() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/services/saveSale")
+                        .param("name", "Jessica Lam")
+                        .param("itemType", "Washing Machine")
+                        .param("salesAmount", "5000.005")
+                        .param("transactionDate", "2024-01-15"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("salesForm"))
+                .andExpect(MockMvcResultMatchers.model().attributeHasFieldErrors("sale", "salesAmount"))
+                .andExpect(MockMvcResultMatchers.model().attribute("errorMessage", "All fields must be filled out correctly."));
+
+        verify(saleService, never()).saveSale(any(Sale.class));
     }
 
     /**
      * Test case for viewing the sales report.
-     * Verifies that GET requests to /services/salesReport display the salesReport view with a list of sales.
+     * Verifies that GET requests to /services/salesReport display the first page of the salesReport view.
      */
     @Test
     public void testViewSalesReport() throws Exception {
         List<Sale> sales = new ArrayList<>();
         sales.add(new Sale());  // Add a dummy sale to the list.
-        when(saleService.getAllSales()).thenReturn(sales);  // Mock the service to return the list of sales.
+        SalePage page = new SalePage(sales, SalePage.SORT_BY_DATE, false, SaleService.DEFAULT_PAGE_SIZE, false);
+        when(saleService.getSalesPage(new SaleFilter(), SalePage.SORT_BY_DATE, false, null, null, SaleService.DEFAULT_PAGE_SIZE))
+                .thenReturn(page);  // Mock the service to return the first page of sales.
 
         mockMvc.perform(MockMvcRequestBuilders.get("/services/salesReport"))  // Perform a GET request to /services/salesReport.
                 .andExpect(status().isOk())  // Expect HTTP 200 status.
                 .andExpect(MockMvcResultMatchers.view().name("salesReport"))  // Expect the salesReport view.
+                .andExpect(MockMvcResultMatchers.model().attribute("page", page))  // Expect the model to have the page.
                 .andExpect(MockMvcResultMatchers.model().attribute("sales", sales));  // Expect the model to have a "sales" attribute with the list of sales.
     }
 
+    /**
+     * Test case for viewing a filtered sales report.
+     * Verifies that the filter parameters are bound and passed to the service with the paging parameters.
+     */
+    @Test
+    public void testViewFilteredSalesReport() throws Exception {
+        SaleFilter filter = new SaleFilter();
+        filter.setNamePrefix("Jes");
+        filter.setFromDate(LocalDate.of(2024, 1, 1));
+        SalePage page = new SalePage(new ArrayList<>(), SalePage.SORT_BY_ID, true, 10, false);
+        when(saleService.getSalesPage(filter, SalePage.SORT_BY_ID, true, null, null, 10)).thenReturn(page);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/services/salesReport")
+                        .param("namePrefix", "Jes")
+                        .param("fromDate", "2024-01-01")
+                        .param("sort", "id")
+                        .param("dir", "asc")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("salesReport"))
+                .andExpect(MockMvcResultMatchers.model().attribute("filter", filter))
+                .andExpect(MockMvcResultMatchers.model().attribute("page", page));
+    }
+
+    /**
+     * Test case for viewing the full sales report.
+     * Verifies that the view is rendered while the service streams the matching rows, with the rows and the order in its model.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testViewFullSalesReport() throws Exception {
+        ThymeleafViewResolver resolver = mock(ThymeleafViewResolver.class);
+        View view = mock(View.class);
+        when(viewResolver.getObject()).thenReturn(resolver);
+        when(resolver.resolveViewName(eq("salesReportAll"), any(Locale.class))).thenReturn(view);
+        Iterator<Sale> rows = Collections.emptyIterator();
+        when(saleExportService.streamReport(any(SaleFilter.class), eq("id"), eq(true), any())).thenAnswer(invocation -> {
+            invocation.<ThrowingConsumer<Iterator<Sale>>>getArgument(3).accept(rows);  // Render while the rows are open.
+            return 0L;
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/services/salesReport/all")
+                        .param("itemType", "Refrigerator")
+                        .param("sort", "id")
+                        .param("dir", "asc"))
+                .andExpect(status().isOk());
+
+        verify(view).render(argThat(model -> model.get("sales") == rows && Boolean.TRUE.equals(model.get("ascending"))
+                && "Refrigerator".equals(((SaleFilter) model.get("filter")).getItemType())), any(), any());
+    }
+
     /**
      * Test case for displaying the edit sale form.
      * Verifies that GET requests to /services/editSale/{id} display the editSale view with the sale data.
@@ -122,17 +269,90 @@ public class SaleControllerTest {
         sale.setId(1L);
         sale.setName("Jessica Lam");
         sale.setItemType("Washing Machine");
-        sale.setSalesAmount(5000.0);
+        sale.setSalesAmountCents(500_000);
 
         mockMvc.perform(MockMvcRequestBuilders.post("/services/updateSale")  // Perform a POST request to /services/updateSale.
                         .param("id", "1")
                         .param("name", "Jessica Lam")
                         .param("itemType", "Washing Machine")
-                        .param("salesAmount", "5000.0"))
+                        .param("salesAmount", "5000.0")
+                        .param("transactionDate", "2024-01-15"))
                 .andExpect(status().is3xxRedirection())  // Expect HTTP 3xx redirection status.
                 .andExpect(MockMvcResultMatchers.redirectedUrl("/services/salesReport"));  // Expect redirection to /services/salesReport.
     }
 
+    /**
+     * Test case for updating a sale with fields the sale rules reject.
+     * Verifies that the edit form is shown again with the validation message and nothing is saved.
+     */
+    @Test
+    public void testUpdateSaleInvalid() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/services/updateSale")
+                        .param("id", "1")
+                        .param("name", "   ")  // Blank name.
+                        .param("itemType", "Washing Machine")
+                        .param("salesAmount", "5000.0")
+                        .param("transactionDate", "2024-01-15"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("editSale"))
+                .andExpect(MockMvcResultMatchers.model().attribute("errorMessage", "All fields must be filled out correctly."));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/services/updateSale")
+                        .param("id", "1")
+                        .param("name", "Jessica Lam")
+                        .param("itemType", "Washing Machine")
+                        .param("salesAmount", "5000.0"))  // No transaction date.
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("editSale"));
+
+        verify(saleService, never()).saveSale(any(Sale.class));
+    }
+
+    /**
+     * Test case for updating a sale with an amount that has more decimal places than its currency allows.
+     * Verifies that the edit form is shown again with the validation message and nothing is saved.
+     */
+    @Test
+    public void testUpdateSaleTooManyDecimals() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/services/updateSale")
+                        .param("id", "1")
+                        .param("name", "Jessica Lam")
+                        .param("itemType", "Washing Machine")
+                        .param("salesAmount", "5000.005"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.view().name("editSale"))
+                .andExpect(MockMvcResultMatchers.model().attributeHasFieldErrors("sale", "salesAmount"))
+                .andExpect(MockMvcResultMatchers.model().attribute("errorMessage", "All fields must be filled out correctly."));
+
+        verify(saleService, never()).saveSale(any(Sale.class));
+    }
+
+    /**
+     * Test case for updating a sale that was changed since the form was opened.
+     * Verifies that the edit form is shown again with 409, the current sale and the submitted values.
+     */
+    @Test
+    public void testUpdateSaleConflict() throws Exception {
+        Sale current = new Sale();
+        current.setId(1L);
+        current.setName("Jessica Lam");
+        current.setVersion(3L);
+        when(saleService.saveSale(any(Sale.class))).thenThrow(new ObjectOptimisticLockingFailureException(Sale.class, 1L));
+        when(saleService.getSaleById(1L)).thenReturn(current);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/services/updateSale")
+                        .param("id", "1")
+                        .param("version", "2")
+                        .param("name", "Jessica Lam-Wong")
+                        .param("itemType", "Washing Machine")
+                        .param("salesAmount", "5000.0")
+                        .param("transactionDate", "2024-01-15"))
+                .andExpect(status().isConflict())  // Expect HTTP 409 status.
+                .andExpect(MockMvcResultMatchers.view().name("editSale"))
+                .andExpect(MockMvcResultMatchers.model().attribute("sale", current))
+                .andExpect(MockMvcResultMatchers.model().attributeExists("submitted", "errorMessage"));
+    }
+
     /**
      * Test case for deleting a sale.
      * Verifies that GET requests to /services/deleteSale/{id} delete the sale and redirect to the sales report.
@@ -145,4 +365,18 @@ public class SaleControllerTest {
 
         verify(saleService, times(1)).deleteSaleById(1L);  // Verify that deleteSaleById method was called once with ID 1L.
     }
+
+    /**
+     * Test case for deleting the sales selected in the report.
+     * Verifies that the selected IDs are deleted with one call and the report is shown again.
+     */
+    @Test
+    public void testDeleteSelectedSales() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/services/deleteSales")
+                        .param("ids", "1", "2", "3"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(MockMvcResultMatchers.redirectedUrl("/services/salesReport"));
+
+        verify(saleService, times(1)).deleteSalesByIds(List.of(1L, 2L, 3L));
+    }
 }
@@ -0,0 +1,158 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleFeed;
+import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SalesAggregate;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for the live sales feed.
+ * Subscribes emitters that record or refuse events, writes sales through SaleService,
+ * and checks what reaches each subscriber.
+ */
+@SpringBootTest
+public class SaleFeedTest {
+
+    @Autowired
+    private SaleFeed saleFeed; // Feed under test
+
+    @Autowired
+    private SaleService saleService; // Service publishing committed changes
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry holding the subscriber gauge
+
+    /**
+     * One event received by a recording emitter.
+     */
+    private record Sent(String name, Object data) {
+    }
+
+    /**
+     * Emitter recording the events sent to it, each send held until the gate opens.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<Sent> events = new CopyOnWriteArrayList<>(); // Named events, in send order
+        private final CountDownLatch gate; // Opened to let sends through
+        private final CountDownLatch waiting = new CountDownLatch(1); // Counted down once a send waits at the gate
+
+        private RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            waiting.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            String name = null;
+            Object data = null;
+            for (DataWithMediaType part : builder.build()) {
+                if (MediaType.APPLICATION_JSON.equals(part.getMediaType())) {
+                    data = part.getData();
+                } else if (part.getData().toString().startsWith("event:")) {
+                    name = part.getData().toString().substring("event:".length()).split("\n")[0];
+                }
+            }
+            if (name != null) {
+                events.add(new Sent(name, data)); // Heartbeat comments have no name
+            }
+        }
+    }
+
+    /**
+     * Tests that changes committed while a subscriber is still being written to are coalesced:
+     * the latest state of each sale is sent once, a sale created and deleted in between is never
+     * sent, and the running totals follow the changes.
+     */
+    @Test
+    public void testSlowSubscriberGetsCoalescedChanges() {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(gate);
+        saleFeed.subscribe(emitter);
+        awaitTrue(() -> emitter.waiting.getCount() == 0); // The initial totals are held at the gate
+
+        Sale edited = saleService.saveSale(newSale("Feed Editor", 1_000));
+        edited.setSalesAmountCents(2_000);
+        edited = saleService.saveSale(edited);
+        edited.setSalesAmountCents(3_000);
+        saleService.saveSale(edited);
+        Sale dropped = saleService.saveSale(newSale("Feed Dropper", 4_000));
+        saleService.deleteSaleById(dropped.getId());
+        Sale added = saleService.saveSale(newSale("Feed Adder", 5_000));
+        gate.countDown();
+
+        awaitTrue(() -> emitter.events.size() >= 4);
+        List<Sent> events = emitter.events;
+        assertEquals(List.of(SaleFeed.TOTALS, SaleFeed.CREATED, SaleFeed.CREATED, SaleFeed.TOTALS),
+                events.stream().map(Sent::name).toList());
+        Sale first = (Sale) events.get(1).data();
+        assertEquals(edited.getId(), first.getId());
+        assertEquals(3_000, first.getSalesAmountCents());
+        assertEquals(added.getId(), ((Sale) events.get(2).data()).getId());
+        SalesAggregate before = (SalesAggregate) events.get(0).data();
+        SalesAggregate after = (SalesAggregate) events.get(3).data();
+        assertEquals(before.getSaleCount() + 2, after.getSaleCount());
+        assertEquals(before.getTotalCents() + 8_000, after.getTotalCents());
+    }
+
+    /**
+     * Tests that a subscriber whose connection fails is dropped without affecting writers.
+     */
+    @Test
+    public void testFailedSubscriberIsDropped() {
+        double open = meterRegistry.get(SaleFeed.SUBSCRIBERS_METRIC).gauge().value();
+        saleFeed.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("client went away");
+            }
+        });
+
+        assertNotNull(saleService.saveSale(newSale("Feed Writer", 1_000)).getId());
+        awaitTrue(() -> meterRegistry.get(SaleFeed.SUBSCRIBERS_METRIC).gauge().value() == open);
+    }
+
+    /**
+     * Waits up to ten seconds for a condition met on another thread.
+     */
+    private void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for the feed");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale(String name, long amountCents) {
+        Sale sale = new Sale();
+        sale.setName(name);
+        sale.setItemType("Music System");
+        sale.setSalesAmountCents(amountCents);
+        sale.setTransactionDate(LocalDate.of(2024, 9, 1));
+        return sale;
+    }
+}
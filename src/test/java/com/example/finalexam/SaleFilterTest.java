@@ -0,0 +1,110 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SalePage;
+import com.example.finalexam.Services.SaleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for the filtered sales report.
+ * Runs the filter queries against the in-memory H2 database.
+ */
+@SpringBootTest
+public class SaleFilterTest {
+
+    @Autowired
+    private SaleService saleService; // Service under test
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository used to bypass the service's deduplication
+
+    /**
+     * Tests that name prefix, item type and amount criteria combine and that keyset paging keeps the filter.
+     */
+    @Test
+    public void testFilteredPagesByDate() {
+        for (int day = 1; day <= 5; day++) {
+            saleService.saveSale(newSale("Filterling " + day, "Refrigerator", 10_000L * day, LocalDate.of(2023, 3, day), null));
+            saleService.saveSale(newSale("Filterling " + day, "Music System", 10_000L * day, LocalDate.of(2023, 3, day), null));
+        }
+        saleService.saveSale(newSale("Other Person", "Refrigerator", 30_000, LocalDate.of(2023, 3, 3), null));
+
+        SaleFilter filter = new SaleFilter();
+        filter.setNamePrefix("Filterling");
+        filter.setItemType("Refrigerator");
+        filter.setMinAmount(new BigDecimal("200.00"));
+
+        SalePage first = saleService.getSalesPage(filter, SalePage.SORT_BY_DATE, true, null, null, 2);
+        SalePage second = saleService.getSalesPage(filter, SalePage.SORT_BY_DATE, true,
+                first.getNextAfterId(), first.getNextAfterDate(), 2);
+        List<Sale> sales = new ArrayList<>(first.getSales());
+        sales.addAll(second.getSales());
+
+        assertTrue(first.isHasNext());
+        assertFalse(second.isHasNext());
+        assertEquals(List.of(LocalDate.of(2023, 3, 2), LocalDate.of(2023, 3, 3), LocalDate.of(2023, 3, 4), LocalDate.of(2023, 3, 5)),
+                sales.stream().map(Sale::getTransactionDate).toList());
+        assertTrue(sales.stream().allMatch(sale -> sale.getName().startsWith("Filterling")
+                && "Refrigerator".equals(sale.getItemType())));
+    }
+
+    /**
+     * Tests that transaction codes are unique and can be looked up exactly, and that blank codes do not collide.
+     * Resubmitting a code through the service returns the stored sale; the index rejects direct duplicates.
+     */
+    @Test
+    public void testTransactionCodeFilterAndUniqueness() {
+        Sale coded = saleService.saveSale(newSale("Coder", "Refrigerator", 1_000, LocalDate.of(2023, 4, 1), "FILTER-CODE-1"));
+        saleService.saveSale(newSale("Coder", "Refrigerator", 1_000, LocalDate.of(2023, 4, 1), ""));
+        saleService.saveSale(newSale("Coder", "Refrigerator", 1_000, LocalDate.of(2023, 4, 1), " "));
+
+        SaleFilter filter = new SaleFilter();
+        filter.setTransactionCode("FILTER-CODE-1");
+        SalePage page = saleService.getSalesPage(filter, SalePage.SORT_BY_ID, false, null, null, 10);
+        assertEquals(1, page.getSales().size());
+
+        assertEquals(coded.getId(),
+                saleService.saveSale(newSale("Coder", "Refrigerator", 1_000, LocalDate.of(2023, 4, 1), "FILTER-CODE-1")).getId());
+        assertThrows(DataIntegrityViolationException.class, () ->
+                saleRepository.saveAndFlush(newSale("Coder", "Refrigerator", 1_000, LocalDate.of(2023, 4, 1), "FILTER-CODE-1")));
+    }
+
+    /**
+     * Tests that LIKE wildcards in a name prefix are matched literally.
+     */
+    @Test
+    public void testNamePrefixEscapesWildcards() {
+        saleService.saveSale(newSale("Wild_card", "Refrigerator", 1_000, LocalDate.of(2023, 5, 1), null));
+        saleService.saveSale(newSale("WildXcard", "Refrigerator", 1_000, LocalDate.of(2023, 5, 1), null));
+
+        SaleFilter filter = new SaleFilter();
+        filter.setNamePrefix("Wild_");
+        SalePage page = saleService.getSalesPage(filter, SalePage.SORT_BY_ID, true, null, null, 10);
+        assertEquals(List.of("Wild_card"), page.getSales().stream().map(Sale::getName).toList());
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale(String name, String itemType, long amountCents, LocalDate date, String code) {
+        Sale sale = new Sale();
+        sale.setName(name);
+        sale.setItemType(itemType);
+        sale.setSalesAmountCents(amountCents);
+        sale.setTransactionDate(date);
+        sale.setTransactionCode(code);
+        return sale;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.SaleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for idempotent sale creation.
+ * Submits the same transaction code concurrently against the in-memory H2 database.
+ */
+@SpringBootTest
+public class SaleIdempotencyTest {
+
+    @Autowired
+    private SaleService saleService; // Service under test
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository used to check the stored row
+
+    /**
+     * Tests that concurrent submissions of one code store a single row and all get that row back.
+     */
+    @Test
+    public void testConcurrentDuplicatesStoreOneRow() throws Exception {
+        int submissions = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Sale>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(submissions)) {
+            for (int i = 0; i < submissions; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return saleService.saveSale(newSale("IDEMPOTENT-1"));
+                }));
+            }
+            start.countDown();
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<Sale> result : results) {
+            ids.add(result.get().getId());
+        }
+        assertEquals(1, ids.size()); // A second insert would have failed on the unique index instead
+        assertEquals(ids.iterator().next(), saleRepository.findByTransactionCode("IDEMPOTENT-1").orElseThrow().getId());
+    }
+
+    /**
+     * Tests that each resubmission gets its own copy of the stored sale, so changing one
+     * does not change what the first submitter or later resubmissions get.
+     */
+    @Test
+    public void testDuplicatesGetOwnCopy() {
+        Sale first = saleService.saveSale(newSale("IDEMPOTENT-2"));
+        Sale duplicate = saleService.saveSale(newSale("IDEMPOTENT-2"));
+        assertNotSame(first, duplicate);
+        assertEquals(first.getId(), duplicate.getId());
+        assertEquals(first.getVersion(), duplicate.getVersion());
+
+        duplicate.setName("Changed By Client");
+        first.setName("Changed By First Client");
+        Sale later = saleService.saveSale(newSale("IDEMPOTENT-2"));
+        assertNotSame(duplicate, later);
+        assertEquals("Retrying Client", later.getName());
+    }
+
+    /**
+     * Builds a valid unsaved sale with the given code.
+     */
+    private Sale newSale(String code) {
+        Sale sale = new Sale();
+        sale.setName("Retrying Client");
+        sale.setItemType("Refrigerator");
+        sale.setSalesAmountCents(9_900);
+        sale.setTransactionDate(LocalDate.of(2024, 8, 1));
+        sale.setTransactionCode(code);
+        return sale;
+    }
+}
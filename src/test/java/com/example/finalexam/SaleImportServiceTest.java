@@ -0,0 +1,89 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.ImportReport;
+import com.example.finalexam.Services.SaleImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for SaleImportService.
+ * Imports small CSV and JSON documents into the in-memory H2 database.
+ */
+@SpringBootTest(properties = "sales.import.batch-size=2")
+public class SaleImportServiceTest {
+
+    @Autowired
+    private SaleImportService saleImportService; // Service under test
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository used to check what was stored
+
+    /**
+     * Tests that valid CSV rows are stored across several batches and invalid rows are reported by line.
+     */
+    @Test
+    public void testImportCsv() throws IOException {
+        long before = saleRepository.count();
+        String csv = """
+                transactionDate,name,itemType,salesAmount
+                2024-08-01,"Lam, Jessica",Refrigerator,1200.50
+                2024-08-01,John Doe,Music System,0
+                2024-08-02,John Doe,Washing Machine,800
+                not-a-date,John Doe,Washing Machine,800
+                2024-08-03,Ann Lee,Music System,300
+                """;
+
+        ImportReport report = saleImportService.importCsv(stream(csv));
+        assertEquals(3, report.getAccepted());
+        assertEquals(2, report.getRejected());
+        assertEquals(3, report.getRejectedRows().get(0).line());
+        assertEquals("salesAmount must be greater than zero", report.getRejectedRows().get(0).reason());
+        assertEquals(5, report.getRejectedRows().get(1).line());
+        assertEquals(before + 3, saleRepository.count());
+    }
+
+    /**
+     * Tests that a CSV upload without a required column is refused up front.
+     */
+    @Test
+    public void testImportCsvMissingColumn() throws IOException {
+        ImportReport report = saleImportService.importCsv(stream("name,itemType\nJohn Doe,Refrigerator\n"));
+        assertEquals(0, report.getAccepted());
+        assertEquals("missing column salesAmount", report.getRejectedRows().get(0).reason());
+    }
+
+    /**
+     * Tests that newline-delimited JSON records are imported and unreadable records are skipped.
+     */
+    @Test
+    public void testImportNdjson() throws IOException {
+        long before = saleRepository.count();
+        String ndjson = """
+                {"id":999,"name":"Ann Lee","itemType":"Refrigerator","salesAmount":450.0,"transactionDate":"2024-08-04"}
+                {"name":"Ann Lee","itemType":"Refrigerator","salesAmount":450.0,"transactionDate":"yesterday"}
+                {"name":"Ann Lee","itemType":"Music System","salesAmount":99.9,"transactionDate":"2024-08-05"}
+                """;
+
+        ImportReport report = saleImportService.importJson(stream(ndjson));
+        assertEquals(2, report.getAccepted());
+        assertEquals(1, report.getRejected());
+        assertEquals(2, report.getRejectedRows().get(0).line());
+        assertEquals(before + 2, saleRepository.count());
+        assertFalse(saleRepository.existsById(999L));
+    }
+
+    /**
+     * Wraps text in an input stream.
+     */
+    private ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
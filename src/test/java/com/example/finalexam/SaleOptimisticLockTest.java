@@ -0,0 +1,84 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for optimistic concurrency on sale edits.
+ * Two editors open the same sale; the first to submit wins and the second is refused,
+ * instead of silently overwriting the first.
+ */
+@SpringBootTest
+public class SaleOptimisticLockTest {
+
+    @Autowired
+    private SaleService saleService; // Service under test
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // Source of the Hibernate statement statistics
+
+    /**
+     * Tests that the first of two concurrent edits is written with a single statement
+     * and that the second, based on the same version, is refused.
+     */
+    @Test
+    public void testConcurrentEditIsRefused() {
+        Sale stored = saleService.saveSale(newSale());
+        Sale opened = saleService.getSaleById(stored.getId()); // Both editors open the edit form
+
+        Sale first = formCopy(opened);
+        first.setSalesAmountCents(2_000);
+        Sale second = formCopy(opened);
+        second.setName("Second Editor");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+        saleService.saveSale(first);
+        assertEquals(1, statistics.getPrepareStatementCount() - statements); // One UPDATE, no SELECT
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> saleService.saveSale(second));
+        Sale current = saleService.getSaleById(stored.getId());
+        assertEquals("First Editor", current.getName());
+        assertEquals(2_000, current.getSalesAmountCents());
+        assertEquals(opened.getVersion() + 1, current.getVersion());
+    }
+
+    /**
+     * Copies a sale the way the edit form submits it: a new object with every field and the version.
+     */
+    private Sale formCopy(Sale sale) {
+        Sale copy = new Sale();
+        copy.setId(sale.getId());
+        copy.setVersion(sale.getVersion());
+        copy.setName(sale.getName());
+        copy.setItemType(sale.getItemType());
+        copy.setSalesAmountCents(sale.getSalesAmountCents());
+        copy.setCurrency(sale.getCurrency());
+        copy.setTransactionCode(sale.getTransactionCode());
+        copy.setTransactionDate(sale.getTransactionDate());
+        return copy;
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale() {
+        Sale sale = new Sale();
+        sale.setName("First Editor");
+        sale.setItemType("Refrigerator");
+        sale.setSalesAmountCents(1_000);
+        sale.setTransactionDate(LocalDate.of(2024, 10, 1));
+        return sale;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SalePage;
+import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Web.SaleRestController;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the SaleRestController.
+ * Verifies the JSON endpoints and their conditional request handling.
+ */
+@SpringBootTest
+public class SaleRestControllerTest {
+
+    private MockMvc mockMvc; // MockMvc is used to perform and verify HTTP requests and responses.
+
+    @Mock
+    private SaleService saleService; // Mocked service layer
+
+    @InjectMocks
+    private SaleRestController saleRestController; // Controller under test, with the mocked service injected
+
+    /**
+     * Set up method to initialize mocks before each test.
+     */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(saleRestController).build();
+    }
+
+    /**
+     * Tests that a sale is returned with its ETag and Last-Modified headers.
+     */
+    @Test
+    public void testGetSaleSendsValidators() throws Exception {
+        when(saleService.getSaleById(1L)).thenReturn(sale(1L, 3L));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sales/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.name").value("Jessica Lam"));
+    }
+
+    /**
+     * Tests that a matching If-None-Match gets an empty 304.
+     */
+    @Test
+    public void testGetSaleNotModified() throws Exception {
+        when(saleService.getSaleById(1L)).thenReturn(sale(1L, 3L));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sales/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Tests that an unchanged list page gets a 304 and a changed one does not.
+     */
+    @Test
+    public void testListSalesNotModified() throws Exception {
+        SalePage page = new SalePage(List.of(sale(1L, 0L), sale(2L, 0L)), SalePage.SORT_BY_DATE, false, 20, false);
+        when(saleService.getSalesPage(new SaleFilter(), SalePage.SORT_BY_DATE, false, null, null, 20)).thenReturn(page);
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/sales"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sales.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sales").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        SalePage edited = new SalePage(List.of(sale(1L, 1L), sale(2L, 0L)), SalePage.SORT_BY_DATE, false, 20, false);
+        when(saleService.getSalesPage(new SaleFilter(), SalePage.SORT_BY_DATE, false, null, null, 20)).thenReturn(edited);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sales").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Tests that a list page has no Last-Modified, so If-Modified-Since cannot keep a page listing a deleted sale.
+     */
+    @Test
+    public void testListSalesIgnoresIfModifiedSince() throws Exception {
+        SalePage page = new SalePage(List.of(sale(1L, 0L), sale(2L, 0L)), SalePage.SORT_BY_DATE, false, 20, false);
+        when(saleService.getSalesPage(new SaleFilter(), SalePage.SORT_BY_DATE, false, null, null, 20)).thenReturn(page);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sales"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+        SalePage afterDelete = new SalePage(List.of(sale(1L, 0L)), SalePage.SORT_BY_DATE, false, 20, false);
+        when(saleService.getSalesPage(new SaleFilter(), SalePage.SORT_BY_DATE, false, null, null, 20)).thenReturn(afterDelete);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/sales")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 Jan 2099 00:00:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sales.length()").value(1));
+    }
+
+    /**
+     * Tests that the stored amount does not depend on whether the JSON sends the currency before or after the amount.
+     */
+    @Test
+    public void testAmountIndependentOfFieldOrder() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Sale amountFirst = objectMapper.readValue("{\"salesAmount\":1250,\"currency\":\"JPY\"}", Sale.class);
+        Sale currencyFirst = objectMapper.readValue("{\"currency\":\"JPY\",\"salesAmount\":1250}", Sale.class);
+        assertEquals(1250, amountFirst.getSalesAmountCents());
+        assertEquals(1250, currencyFirst.getSalesAmountCents());
+
+        assertThrows(JsonMappingException.class,
+                () -> objectMapper.readValue("{\"salesAmount\":12.50,\"currency\":\"JPY\"}", Sale.class));
+        assertThrows(JsonMappingException.class,
+                () -> objectMapper.readValue("{\"currency\":\"JPY\",\"salesAmount\":12.50}", Sale.class));
+    }
+
+    /**
+     * Tests that an update with a stale If-Match is refused with 412 and nothing is saved.
+     */
+    @Test
+    public void testUpdateSaleStaleIfMatch() throws Exception {
+        when(saleService.getSaleById(1L)).thenReturn(sale(1L, 4L));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/sales/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Jessica Lam\",\"itemType\":\"Refrigerator\",\"salesAmount\":10,\"transactionDate\":\"2024-08-01\"}"))
+                .andExpect(status().isPreconditionFailed());
+        verify(saleService, never()).saveSale(any());
+    }
+
+    /**
+     * Tests that an invalid sale is refused with 400.
+     */
+    @Test
+    public void testCreateSaleInvalid() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/sales")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Jessica Lam\",\"salesAmount\":10}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("itemType is required"));
+    }
+
+    /**
+     * Creates a stored sale with the given ID and version.
+     */
+    private Sale sale(Long id, Long version) {
+        Sale sale = new Sale();
+        sale.setId(id);
+        sale.setVersion(version);
+        sale.setName("Jessica Lam");
+        sale.setItemType("Refrigerator");
+        sale.setSalesAmountCents(1_000);
+        sale.setTransactionDate(LocalDate.of(2024, 8, 1));
+        sale.setUpdatedAt(Instant.parse("2024-08-01T10:00:00Z"));
+        return sale;
+    }
+}
@@ -1,15 +1,33 @@
 package com.example.finalexam;
 
+import com.example.finalexam.Config.CacheConfig;
 import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
 import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.RecentSaleCodes;
+import com.example.finalexam.Services.SalePage;
+import com.example.finalexam.Services.AnalyticsGrouping;
+import com.example.finalexam.Services.SaleArchiveService;
+import com.example.finalexam.Services.SaleFeed;
 import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SalesAggregate;
+import com.example.finalexam.Services.SalesRollup;
+import com.example.finalexam.Services.TransactionCodeGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +45,30 @@ public class SaleServiceTest {
     @Mock
     private SaleRepository saleRepository; // Mocked repository to isolate the service layer
 
+    @Mock
+    private ArchivedSaleRepository archivedSaleRepository; // Mocked archive, empty
+
+    @Mock
+    private SaleArchiveService saleArchiveService; // Mocked archival, nothing archived yet
+
+    @Spy
+    private SalesRollup salesRollup = new SalesRollup(); // Real rollup, updated immediately outside a transaction
+
+    @Spy
+    private RecentSaleCodes recentSaleCodes = new RecentSaleCodes(); // Real recent-codes record
+
+    @Mock
+    private SaleFeed saleFeed; // Mocked live feed, without subscribers
+
+    @Spy
+    private TransactionCodeGenerator transactionCodeGenerator = new TransactionCodeGenerator(); // Real generator, node 0
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry(); // In-memory registry for the row counts
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.SALES_CACHE); // In-memory sale cache
+
     @InjectMocks
     private SaleService saleService; // Service under test, with mocked repository injected
 
@@ -49,7 +91,7 @@ public class SaleServiceTest {
         sale.setId(1L);
         sale.setName("John Doe");
         sale.setItemType("Washing Machine");
-        sale.setSalesAmount(500.0);
+        sale.setSalesAmountCents(50_000);
         sale.setTransactionCode("12345");
 
         // Mock the behavior of save method to return the sale object
@@ -62,6 +104,83 @@ public class SaleServiceTest {
         assertEquals("Washing Machine", savedSale.getItemType());
     }
 
+    /**
+     * Tests that a new sale without a transaction code is given one before it is saved,
+     * and that an update without a code keeps the stored code.
+     */
+    @Test
+    public void testSaveSaleAssignsTransactionCode() {
+        when(saleRepository.save(any(Sale.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Sale created = new Sale();
+        created.setTransactionCode(" ");
+        assertEquals(TransactionCodeGenerator.CODE_LENGTH, saleService.saveSale(created).getTransactionCode().length());
+
+        Sale stored = new Sale();
+        stored.setId(5L);
+        stored.setTransactionCode("STORED");
+        when(saleRepository.findById(5L)).thenReturn(Optional.of(stored));
+        Sale update = new Sale();
+        update.setId(5L);
+        assertEquals("STORED", saleService.saveSale(update).getTransactionCode());
+    }
+
+    /**
+     * Tests that resubmitting a new sale with the same transaction code returns the first sale
+     * from the recent-codes record without touching the repository again.
+     */
+    @Test
+    public void testSaveSaleDeduplicatesByTransactionCode() {
+        when(saleRepository.save(any(Sale.class))).thenAnswer(invocation -> {
+            Sale saved = invocation.getArgument(0);
+            saved.setId(42L);
+            return saved;
+        });
+        Sale first = new Sale();
+        first.setTransactionCode("RETRY-1");
+        Sale retry = new Sale();
+        retry.setTransactionCode("RETRY-1");
+
+        Sale saved = saleService.saveSale(first);
+        Sale duplicate = saleService.saveSale(retry);
+        assertNotSame(saved, duplicate); // A copy, not the instance shared by every resubmission
+        assertEquals(42L, duplicate.getId());
+        assertNull(retry.getId());
+        verify(saleRepository, times(1)).save(any(Sale.class));
+        verify(saleRepository, times(1)).findByTransactionCode("RETRY-1");
+        assertEquals(1, meterRegistry.counter(SaleService.DUPLICATES_METRIC).count());
+    }
+
+    /**
+     * Tests that updating a sale moves its amount from the old rollup group to the new one.
+     */
+    @Test
+    public void testSaveSaleUpdatesRollupDelta() {
+        LocalDate date = LocalDate.of(2024, 8, 1);
+        Sale before = new Sale();
+        before.setId(1L);
+        before.setItemType("Refrigerator");
+        before.setSalesAmountCents(10_000);
+        before.setTransactionDate(date);
+        salesRollup.add(salesRollup.entryOf(before)); // The rollup already counts the stored row
+
+        Sale after = new Sale();
+        after.setId(1L);
+        after.setItemType("Music System");
+        after.setSalesAmountCents(15_000);
+        after.setTransactionDate(date);
+
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(before));
+        when(saleRepository.save(after)).thenReturn(after);
+
+        saleService.saveSale(after);
+        List<SalesAggregate> totals = salesRollup.getTotals(AnalyticsGrouping.ITEM_TYPE, date, date);
+        assertEquals(1, totals.size());
+        assertEquals("Music System", totals.get(0).getLabel());
+        assertEquals(1, totals.get(0).getSaleCount());
+        assertEquals(15_000, totals.get(0).getTotalCents());
+    }
+
     /**
      * Tests the getAllSales() method of SaleService.
      * Verifies that the list of all sales is retrieved correctly.
@@ -84,6 +203,51 @@ public class SaleServiceTest {
         assertEquals("John Doe", allSales.get(0).getName());
     }
 
+    /**
+     * Tests the getSalesPage() method of SaleService for the first page sorted by ID.
+     * Verifies that one extra row is fetched to detect the next page and is not returned.
+     */
+    @Test
+    public void testGetSalesPageById() {
+        List<Sale> sales = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Sale sale = new Sale();
+            sale.setId(id);
+            sales.add(sale);
+        }
+
+        // Mock the keyset query to return one row more than the page size
+        when(saleRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(sales);
+
+        SalePage page = saleService.getSalesPage(SalePage.SORT_BY_ID, true, null, null, 2);
+        assertEquals(2, page.getSales().size());
+        assertTrue(page.isHasNext());
+        assertEquals(2L, page.getNextAfterId());
+        assertEquals(3, meterRegistry.summary(SaleService.ROWS_METRIC, "query", "page").totalAmount());
+    }
+
+    /**
+     * Tests the getSalesPage() method of SaleService for a later page sorted by date.
+     * Verifies that the (date, id) keyset of the previous page is used to seek.
+     */
+    @Test
+    public void testGetSalesPageByDateAfterKeyset() {
+        LocalDate date = LocalDate.of(2024, 8, 1);
+        Sale sale = new Sale();
+        sale.setId(7L);
+        sale.setTransactionDate(date);
+        List<Sale> sales = new ArrayList<>();
+        sales.add(sale);
+
+        // Mock the descending date seek to return a single, last row
+        when(saleRepository.findPageBefore(date, 8L, Limit.of(21))).thenReturn(sales);
+
+        SalePage page = saleService.getSalesPage(SalePage.SORT_BY_DATE, false, 8L, date, SaleService.DEFAULT_PAGE_SIZE);
+        assertEquals(1, page.getSales().size());
+        assertFalse(page.isHasNext());
+        assertEquals(date, page.getNextAfterDate());
+    }
+
     /**
      * Tests the getSaleById() method of SaleService.
      * Verifies that a sale record with a given ID is retrieved correctly.
@@ -114,4 +278,80 @@ public class SaleServiceTest {
         saleService.deleteSaleById(1L);
         verify(saleRepository, times(1)).deleteById(1L);
     }
+
+    /**
+     * Tests that deleting a sale removes its amount from the rollup and publishes the deletion.
+     */
+    @Test
+    public void testDeleteSaleByIdUpdatesRollup() {
+        LocalDate date = LocalDate.of(2024, 8, 1);
+        Sale sale = new Sale();
+        sale.setId(1L);
+        sale.setName("John Doe");
+        sale.setSalesAmountCents(10_000);
+        sale.setTransactionDate(date);
+        salesRollup.add(salesRollup.entryOf(sale));
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(sale));
+
+        saleService.deleteSaleById(1L);
+        assertTrue(salesRollup.getTotals(AnalyticsGrouping.SALESMAN, date, date).isEmpty());
+        verify(saleFeed).publish(List.of(SaleFeed.Change.deleted(1L)));
+    }
+
+    /**
+     * Tests that updating a sale cached at the submitted version writes only through the partial,
+     * version-checked UPDATE, without reading the row, and moves its amount in the rollup.
+     */
+    @Test
+    public void testUpdateOfCachedVersionSkipsRead() {
+        LocalDate date = LocalDate.of(2024, 8, 1);
+        Sale cached = new Sale();
+        cached.setId(1L);
+        cached.setName("John Doe");
+        cached.setItemType("Refrigerator");
+        cached.setSalesAmountCents(10_000);
+        cached.setTransactionCode("12345");
+        cached.setTransactionDate(date);
+        cached.setVersion(2L);
+        cacheManager.getCache(CacheConfig.SALES_CACHE).put(1L, cached);
+        salesRollup.add(salesRollup.entryOf(cached));
+
+        Sale edited = new Sale();
+        edited.setId(1L);
+        edited.setName("John Doe");
+        edited.setItemType("Refrigerator");
+        edited.setSalesAmountCents(12_500);
+        edited.setTransactionDate(date);
+        edited.setVersion(2L);
+        when(saleRepository.updateChanged(eq(cached), eq(edited), any())).thenReturn(1);
+
+        Sale saved = saleService.saveSale(edited);
+        assertEquals(3L, saved.getVersion());
+        assertEquals("12345", saved.getTransactionCode());
+        verify(saleRepository, never()).findById(1L);
+        verify(saleRepository, never()).save(any(Sale.class));
+        assertEquals(12_500, salesRollup.getTotals(AnalyticsGrouping.SALESMAN, date, date).get(0).getTotalCents());
+    }
+
+    /**
+     * Tests that an update carrying an older version than the stored sale is refused and writes nothing.
+     */
+    @Test
+    public void testUpdateOfStaleVersionIsRefused() {
+        Sale stored = new Sale();
+        stored.setId(1L);
+        stored.setName("John Doe");
+        stored.setTransactionCode("12345");
+        stored.setVersion(3L);
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        Sale stale = new Sale();
+        stale.setId(1L);
+        stale.setName("Jane Doe");
+        stale.setTransactionCode("12345");
+        stale.setVersion(2L);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> saleService.saveSale(stale));
+        verify(saleRepository, never()).save(any(Sale.class));
+    }
 }
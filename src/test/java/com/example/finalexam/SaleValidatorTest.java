@@ -0,0 +1,81 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Services.SaleValidator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for SaleValidator.
+ * Covers each rule, including the ones stricter than the original form check, which only rejected
+ * missing fields: blank names and item types, and currencies other than the default.
+ */
+public class SaleValidatorTest {
+
+    /**
+     * Tests that a complete sale is accepted.
+     */
+    @Test
+    public void testValidSale() {
+        assertNull(SaleValidator.validate(validSale()));
+    }
+
+    /**
+     * Tests that missing and blank names and item types are rejected.
+     */
+    @Test
+    public void testBlankNameAndItemTypeRejected() {
+        for (String text : new String[]{null, "", "   "}) {
+            Sale noName = validSale();
+            noName.setName(text);
+            assertEquals("name is required", SaleValidator.validate(noName));
+
+            Sale noItemType = validSale();
+            noItemType.setItemType(text);
+            assertEquals("itemType is required", SaleValidator.validate(noItemType));
+        }
+    }
+
+    /**
+     * Tests that amounts in other currencies, or without one, are rejected.
+     */
+    @Test
+    public void testOtherCurrencyRejected() {
+        Sale euros = validSale();
+        euros.setCurrency("EUR");
+        assertEquals("currency must be USD", SaleValidator.validate(euros));
+
+        Sale noCurrency = validSale();
+        noCurrency.setCurrency(null);
+        assertEquals("currency must be USD", SaleValidator.validate(noCurrency));
+    }
+
+    /**
+     * Tests that amounts that are not positive and missing dates are rejected.
+     */
+    @Test
+    public void testAmountAndDateRequired() {
+        Sale zero = validSale();
+        zero.setSalesAmountCents(0);
+        assertEquals("salesAmount must be greater than zero", SaleValidator.validate(zero));
+
+        Sale noDate = validSale();
+        noDate.setTransactionDate(null);
+        assertEquals("transactionDate is required", SaleValidator.validate(noDate));
+    }
+
+    /**
+     * Builds a sale that passes every rule.
+     */
+    private Sale validSale() {
+        Sale sale = new Sale();
+        sale.setName("Jessica Lam");
+        sale.setItemType("Washing Machine");
+        sale.setSalesAmountCents(500_000);
+        sale.setTransactionDate(LocalDate.of(2024, 1, 15));
+        return sale;
+    }
+}
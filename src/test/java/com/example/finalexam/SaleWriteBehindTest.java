@@ -0,0 +1,147 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.SaleImportService;
+import com.example.finalexam.Services.SaleWriteBehind;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration test class for write-behind sale capture.
+ * Runs the journal and background writer against the in-memory H2 database.
+ */
+@SpringBootTest(properties = {
+        "sales.write-behind.enabled=true",
+        "sales.write-behind.journal=target/write-behind-test/journal",
+        "sales.write-behind.batch-size=2",
+        "sales.write-behind.fsync=false"
+})
+public class SaleWriteBehindTest {
+
+    private static final Path DIRECTORY = Path.of("target/write-behind-test"); // Journal and checkpoint location
+
+    @Autowired
+    private SaleWriteBehind saleWriteBehind; // Component under test
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository used to check the stored rows
+
+    @SpyBean
+    private SaleImportService saleImportService; // Storage used by the writer, made to fail like a database outage
+
+    private static volatile boolean databaseDown; // Whether the writer's stores fail as if the database were unreachable
+
+    /**
+     * Leaves a journal from a "crashed" run before the application starts: entry 1 was already stored
+     * (checkpointed), entry 2 was acknowledged but never stored, and the last line is a torn write.
+     */
+    @BeforeAll
+    public static void writeLeftoverJournal() throws Exception {
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+        Files.createDirectories(DIRECTORY);
+        Files.write(DIRECTORY.resolve("journal"), List.of(
+                "{\"seq\":1,\"sale\":{\"name\":\"Journal\",\"itemType\":\"Refrigerator\",\"salesAmount\":10.0,"
+                        + "\"transactionDate\":\"2023-06-01\",\"transactionCode\":\"WB-CHECKPOINTED\"}}",
+                "{\"seq\":2,\"sale\":{\"name\":\"Journal\",\"itemType\":\"Refrigerator\",\"salesAmount\":20.0,"
+                        + "\"transactionDate\":\"2023-06-01\",\"transactionCode\":\"WB-REPLAYED\"}}",
+                "{\"seq\":3,\"sale\":{\"name\":\"Jou"));
+        Files.writeString(DIRECTORY.resolve("journal.checkpoint"), "1");
+    }
+
+    /**
+     * Tests that startup stores the journaled sales past the checkpoint and that the journal is emptied once stored.
+     */
+    @Test
+    public void testRecoversJournalPastCheckpoint() throws Exception {
+        assertTrue(saleRepository.findByTransactionCode("WB-REPLAYED").isPresent());
+        assertTrue(saleRepository.findByTransactionCode("WB-CHECKPOINTED").isEmpty());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Files.size(DIRECTORY.resolve("journal")) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, Files.size(DIRECTORY.resolve("journal")));
+    }
+
+    /**
+     * Tests that accepted sales are stored by the background writer and the checkpoint advances.
+     */
+    @Test
+    public void testSubmittedSalesAreStored() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(saleWriteBehind.submit(newSale("WB-SUBMITTED-" + i)));
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (saleRepository.findByTransactionCode("WB-SUBMITTED-5").isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(saleRepository.findByTransactionCode("WB-SUBMITTED-" + i).isPresent());
+        }
+        assertTrue(Long.parseLong(Files.readString(DIRECTORY.resolve("journal.checkpoint")).trim()) >= 5);
+    }
+
+    /**
+     * Tests that while the database is down the writer keeps retrying the batch: the checkpoint does not move
+     * past the unstored sale and the journal keeps it, until the database is back and the sale is stored.
+     */
+    @Test
+    public void testOutageDoesNotSkipSales() throws Exception {
+        doAnswer(invocation -> {
+            if (databaseDown) {
+                throw new CannotCreateTransactionException("database down",
+                        new SQLTransientConnectionException("Connection is not available"));
+            }
+            return invocation.callRealMethod();
+        }).when(saleImportService).storeSales(anyList());
+        long checkpoint = Long.parseLong(Files.readString(DIRECTORY.resolve("journal.checkpoint")).trim());
+
+        databaseDown = true;
+        try {
+            assertTrue(saleWriteBehind.submit(newSale("WB-OUTAGE")));
+            verify(saleImportService, timeout(5_000).atLeast(2)).storeSales(anyList()); // Retried, not given up
+            assertEquals(checkpoint, Long.parseLong(Files.readString(DIRECTORY.resolve("journal.checkpoint")).trim()));
+            assertTrue(Files.readString(DIRECTORY.resolve("journal")).contains("WB-OUTAGE"));
+            assertTrue(saleRepository.findByTransactionCode("WB-OUTAGE").isEmpty());
+        } finally {
+            databaseDown = false;
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (saleRepository.findByTransactionCode("WB-OUTAGE").isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(saleRepository.findByTransactionCode("WB-OUTAGE").isPresent());
+        assertTrue(Long.parseLong(Files.readString(DIRECTORY.resolve("journal.checkpoint")).trim()) > checkpoint);
+    }
+
+    /**
+     * Builds a valid unsaved sale with the given code.
+     */
+    private Sale newSale(String code) {
+        Sale sale = new Sale();
+        sale.setName("Write Behind");
+        sale.setItemType("Music System");
+        sale.setSalesAmountCents(3_000);
+        sale.setTransactionDate(LocalDate.of(2023, 6, 2));
+        sale.setTransactionCode(code);
+        return sale;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Repositories.ArchivedSaleRepository;
+import com.example.finalexam.Repositories.DailyTotals;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.AnalyticsGrouping;
+import com.example.finalexam.Services.SaleArchiveService;
+import com.example.finalexam.Services.SalesAggregate;
+import com.example.finalexam.Services.SalesAnalyticsService;
+import com.example.finalexam.Services.SalesRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test class for SalesAnalyticsService.
+ * Uses Mockito to mock the aggregate queries of SaleRepository.
+ */
+@SpringBootTest
+public class SalesAnalyticsServiceTest {
+
+    @Mock
+    private SaleRepository saleRepository; // Mocked repository returning pre-aggregated rows
+
+    @Mock
+    private ArchivedSaleRepository archivedSaleRepository; // Mocked archive, empty
+
+    @Mock
+    private SaleArchiveService saleArchiveService; // Mocked archival, nothing archived yet
+
+    @Mock
+    private SalesRollup salesRollup; // Mocked rollup, not ready unless a test says so
+
+    @InjectMocks
+    private SalesAnalyticsService salesAnalyticsService; // Service under test
+
+    /**
+     * Initializes mocks before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests that daily rows are rolled up into ISO weeks, clipped to the requested range.
+     */
+    @Test
+    public void testWeeklyTotalsRollUpDays() {
+        LocalDate from = LocalDate.of(2024, 7, 31); // Wednesday
+        LocalDate to = LocalDate.of(2024, 8, 6); // Tuesday of the next week
+        List<DailyTotals> days = List.of(
+                day(LocalDate.of(2024, 7, 31), 2, 30_000),
+                day(LocalDate.of(2024, 8, 4), 1, 10_000),
+                day(LocalDate.of(2024, 8, 5), 4, 100_000));
+        when(saleRepository.sumByDay(from, to)).thenReturn(days);
+
+        List<SalesAggregate> weeks = salesAnalyticsService.getTotals(AnalyticsGrouping.WEEK, from, to, false);
+        assertEquals(2, weeks.size());
+        assertEquals("2024-W31", weeks.get(0).getLabel());
+        assertEquals(3, weeks.get(0).getSaleCount());
+        assertEquals(40_000, weeks.get(0).getTotalCents());
+        assertEquals(from, weeks.get(0).getFrom());
+        assertEquals(to, weeks.get(1).getTo());
+        assertEquals(new BigDecimal("250.00"), weeks.get(1).getAverageAmount());
+        assertNull(weeks.get(1).getP50());
+    }
+
+    /**
+     * Tests that the summary picks nearest-rank percentiles with single-row pages.
+     */
+    @Test
+    public void testSummaryPercentiles() {
+        LocalDate from = LocalDate.of(2024, 8, 1);
+        LocalDate to = LocalDate.of(2024, 8, 31);
+        List<DailyTotals> days = List.of(day(from, 10, 55_000));
+        when(saleRepository.sumByDay(from, to)).thenReturn(days);
+        when(saleRepository.findAmountsByRank(from, to, PageRequest.of(4, 1))).thenReturn(List.of(5_000L));
+        when(saleRepository.findAmountsByRank(from, to, PageRequest.of(8, 1))).thenReturn(List.of(9_000L));
+        when(saleRepository.findAmountsByRank(from, to, PageRequest.of(9, 1))).thenReturn(List.of(10_000L));
+
+        SalesAggregate summary = salesAnalyticsService.getSummary(from, to, true);
+        assertEquals(10, summary.getSaleCount());
+        assertEquals(new BigDecimal("55.00"), summary.getAverageAmount());
+        assertEquals(new BigDecimal("50.00"), summary.getP50());
+        assertEquals(new BigDecimal("90.00"), summary.getP90());
+        assertEquals(new BigDecimal("100.00"), summary.getP99());
+    }
+
+    /**
+     * Tests that the summary runs no percentile query unless percentiles are asked for.
+     */
+    @Test
+    public void testSummaryWithoutPercentiles() {
+        LocalDate from = LocalDate.of(2024, 8, 1);
+        LocalDate to = LocalDate.of(2024, 8, 31);
+        List<DailyTotals> days = List.of(day(from, 10, 55_000));
+        when(saleRepository.sumByDay(from, to)).thenReturn(days);
+
+        SalesAggregate summary = salesAnalyticsService.getSummary(from, to, false);
+        assertEquals(10, summary.getSaleCount());
+        assertNull(summary.getP50());
+        verify(saleRepository, never()).findAmountsByRank(any(), any(), any());
+    }
+
+    /**
+     * Tests that group totals are served by the rollup, without querying the database, once it is ready.
+     */
+    @Test
+    public void testTotalsServedFromRollup() {
+        LocalDate from = LocalDate.of(2024, 8, 1);
+        LocalDate to = LocalDate.of(2024, 8, 31);
+        List<SalesAggregate> cached = List.of(new SalesAggregate("Refrigerator", from, to, 3, 90_000));
+        when(salesRollup.isReady()).thenReturn(true);
+        when(salesRollup.getTotals(AnalyticsGrouping.ITEM_TYPE, from, to)).thenReturn(cached);
+
+        List<SalesAggregate> rows = salesAnalyticsService.getTotals(AnalyticsGrouping.ITEM_TYPE, from, to, false);
+        assertEquals(cached, rows);
+        verifyNoInteractions(saleRepository);
+    }
+
+    /**
+     * Creates a mocked daily totals row.
+     */
+    private DailyTotals day(LocalDate date, long count, long totalCents) {
+        DailyTotals day = mock(DailyTotals.class);
+        when(day.getDay()).thenReturn(date);
+        when(day.getSaleCount()).thenReturn(count);
+        when(day.getTotalCents()).thenReturn(totalCents);
+        return day;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.SaleRepository;
+import com.example.finalexam.Services.AnalyticsGrouping;
+import com.example.finalexam.Services.SaleFilter;
+import com.example.finalexam.Services.SaleService;
+import com.example.finalexam.Services.SalesAggregate;
+import com.example.finalexam.Services.SalesSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test class for the columnar analytics snapshot.
+ * Stores sales from 2018, older than any other test's, refreshes the snapshot by hand and queries it.
+ * Scans split into tasks of a few rows, so even small data sets run across several fork-join tasks.
+ */
+@SpringBootTest(properties = {"sales.snapshot.refresh-ms=3600000", "sales.snapshot.split-rows=" + SalesSnapshotTest.SPLIT_ROWS})
+public class SalesSnapshotTest {
+
+    static final int SPLIT_ROWS = 4; // Rows per fork-join task
+
+    @Autowired
+    private SalesSnapshot salesSnapshot; // Snapshot under test
+
+    @Autowired
+    private SaleService saleService; // Service storing the sales
+
+    @Autowired
+    private SaleRepository saleRepository; // Repository storing the bulk rows in batches
+
+    /**
+     * Tests grouping, ranking and moving windows over the snapshot, and that a refresh appends new sales.
+     */
+    @Test
+    public void testQueriesAndIncrementalRefresh() {
+        saleService.saveSale(newSale("Snapshot Ann", "Refrigerator", 10_000, LocalDate.of(2018, 3, 1)));
+        saleService.saveSale(newSale("Snapshot Ann", "Refrigerator", 20_000, LocalDate.of(2018, 3, 3)));
+        saleService.saveSale(newSale("Snapshot Bob", "Refrigerator", 50_000, LocalDate.of(2018, 3, 2)));
+        saleService.saveSale(newSale("Snapshot Cy", "Music System", 5_000, LocalDate.of(2018, 3, 3)));
+        salesSnapshot.refresh();
+        SaleFilter filter = march("Snapshot ");
+
+        assertEquals(List.of("Snapshot Ann:2:30000", "Snapshot Bob:1:50000", "Snapshot Cy:1:5000"),
+                summary(salesSnapshot.getTotals(filter, AnalyticsGrouping.SALESMAN)));
+        assertEquals(List.of("Music System:1:5000", "Refrigerator:3:80000"),
+                summary(salesSnapshot.getTotals(filter, AnalyticsGrouping.ITEM_TYPE)));
+        assertEquals(List.of("2018-03:4:85000"), summary(salesSnapshot.getTotals(filter, AnalyticsGrouping.MONTH)));
+
+        Map<String, List<SalesAggregate>> top = salesSnapshot.getTopSalesmen(filter, 1);
+        assertEquals(List.of("Snapshot Cy:1:5000"), summary(top.get("Music System")));
+        assertEquals(List.of("Snapshot Bob:1:50000"), summary(top.get("Refrigerator")));
+
+        List<SalesAggregate> moving = salesSnapshot.getMovingTotals(filter, 2);
+        assertEquals(List.of("2018-03-01:1:10000", "2018-03-02:2:60000", "2018-03-03:3:75000"),
+                summary(moving.subList(0, 3)));
+        assertEquals(LocalDate.of(2018, 3, 2), moving.get(2).getFrom());
+
+        int rows = salesSnapshot.getRowCount();
+        saleService.saveSale(newSale("Snapshot Dee", "Refrigerator", 1_000, LocalDate.of(2018, 3, 4)));
+        salesSnapshot.refresh();
+        assertEquals(rows + 1, salesSnapshot.getRowCount());
+        assertEquals(List.of("Refrigerator:4:81000"), summary(salesSnapshot.getTotals(withItemType(filter, "Refrigerator"),
+                AnalyticsGrouping.ITEM_TYPE)));
+        assertTrue(salesSnapshot.getTotals(withItemType(filter, "Television"), AnalyticsGrouping.ITEM_TYPE).isEmpty());
+
+        filter.setTransactionCode("ABC");
+        assertThrows(IllegalArgumentException.class, () -> salesSnapshot.getTotals(filter, AnalyticsGrouping.DAY));
+    }
+
+    /**
+     * Tests that a scan split across many fork-join tasks adds up every row once.
+     */
+    @Test
+    public void testParallelScanCoversEveryRow() {
+        int count = 25 * SPLIT_ROWS + 3;
+        List<Sale> sales = new ArrayList<>();
+        long expectedCents = 0;
+        for (int i = 0; i < count; i++) {
+            long cents = 100 + i % 1000;
+            sales.add(newSale("Snapshot Bulk " + i % 5, i % 2 == 0 ? "Washing Machine" : "Music System",
+                    cents, LocalDate.of(2018, 6, 1 + i % 30)));
+            expectedCents += cents;
+        }
+        saleRepository.saveAll(sales);
+        salesSnapshot.refresh();
+
+        SaleFilter filter = new SaleFilter();
+        filter.setNamePrefix("Snapshot Bulk");
+        List<SalesAggregate> salesmen = salesSnapshot.getTotals(filter, AnalyticsGrouping.SALESMAN);
+        assertEquals(5, salesmen.size());
+        assertEquals(count, salesmen.stream().mapToLong(SalesAggregate::getSaleCount).sum());
+        assertEquals(expectedCents, salesmen.stream().mapToLong(SalesAggregate::getTotalCents).sum());
+        assertEquals(30, salesSnapshot.getTotals(filter, AnalyticsGrouping.DAY).size());
+        assertEquals(count, salesSnapshot.getTopSalesmen(filter, 5).values().stream()
+                .flatMap(List::stream).mapToLong(SalesAggregate::getSaleCount).sum());
+    }
+
+    /**
+     * Builds a filter over March 2018 and a name prefix.
+     */
+    private SaleFilter march(String namePrefix) {
+        SaleFilter filter = new SaleFilter();
+        filter.setNamePrefix(namePrefix);
+        filter.setFromDate(LocalDate.of(2018, 3, 1));
+        filter.setToDate(LocalDate.of(2018, 3, 31));
+        return filter;
+    }
+
+    /**
+     * Copies a filter with an item type added.
+     */
+    private SaleFilter withItemType(SaleFilter filter, String itemType) {
+        SaleFilter copy = march(filter.getNamePrefix());
+        copy.setItemType(itemType);
+        return copy;
+    }
+
+    /**
+     * Renders aggregates as label:count:cents for comparison.
+     */
+    private List<String> summary(List<SalesAggregate> rows) {
+        return rows.stream().map(row -> row.getLabel() + ":" + row.getSaleCount() + ":" + row.getTotalCents()).toList();
+    }
+
+    /**
+     * Builds a valid unsaved sale.
+     */
+    private Sale newSale(String name, String itemType, long amountCents, LocalDate date) {
+        Sale sale = new Sale();
+        sale.setName(name);
+        sale.setItemType(itemType);
+        sale.setSalesAmountCents(amountCents);
+        sale.setTransactionDate(date);
+        return sale;
+    }
+}
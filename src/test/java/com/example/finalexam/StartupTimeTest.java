@@ -0,0 +1,158 @@
+package com.example.finalexam;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Startup-time comparison of the default (development) configuration and the production setup.
+ * Starts the jar extracted by {@code mvn -Pprod package} in fresh JVMs, several times per configuration,
+ * and reports the median time until the application logs that it started:
+ * the default profile (ddl-auto=update, uncached templates, eager beans), the prod profile
+ * (Flyway-migrated schema, cached templates, lazy beans), prod with the AOT bean definitions, and prod with AOT
+ * and the CDS archive. Each run uses its own in-memory H2 database.
+ * Excluded from the normal build; run with {@code mvn -Pprod package} and then {@code mvn test -Pstartup-test}.
+ * The number of runs per configuration is set with the system property startup.runs.
+ * Results are also written to target/startup-test/results.json.
+ */
+@Tag("startup")
+public class StartupTimeTest {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5); // Starts per configuration
+    private static final Path APP = Path.of("target", "app"); // Jar extracted by the prod build
+    private static final Pattern STARTED = Pattern.compile("Started FinalExamApplication in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+
+    /**
+     * One configuration to start.
+     */
+    private record Configuration(String name, List<String> jvmArgs, List<String> appArgs) {
+    }
+
+    /**
+     * The median startup of one configuration.
+     */
+    private record Result(String name, double contextSeconds, double processSeconds) {
+    }
+
+    /**
+     * Starts every configuration and prints the comparison.
+     */
+    @Test
+    public void compareStartupTimes() throws Exception {
+        Path jar = findJar();
+        assumeTrue(jar != null && Files.exists(APP.resolve("application.jsa")), "run mvn -Pprod package first");
+
+        List<String> prod = List.of("--spring.profiles.active=prod");
+        List<Configuration> configurations = List.of(
+                new Configuration("default", List.of(), List.of()),
+                new Configuration("prod", List.of(), prod),
+                new Configuration("prod+aot", List.of("-Dspring.aot.enabled=true"), prod),
+                new Configuration("prod+aot+cds", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=application.jsa"), prod));
+
+        List<Result> results = new ArrayList<>();
+        for (Configuration configuration : configurations) {
+            double[] context = new double[RUNS];
+            double[] process = new double[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                double[] times = start(jar, configuration, run);
+                context[run] = times[0];
+                process[run] = times[1];
+            }
+            results.add(new Result(configuration.name(), median(context), median(process)));
+        }
+
+        double baseline = results.get(0).processSeconds();
+        StringBuilder json = new StringBuilder("[\n");
+        System.out.printf("%n%-14s %12s %12s %10s%n", "configuration", "context s", "process s", "vs default");
+        for (Result result : results) {
+            double change = (result.processSeconds() - baseline) / baseline * 100;
+            System.out.printf("%-14s %12.3f %12.3f %9.1f%%%n", result.name(), result.contextSeconds(), result.processSeconds(), change);
+            json.append(String.format(Locale.ROOT,
+                    "  {\"configuration\":\"%s\",\"runs\":%d,\"contextSeconds\":%.3f,\"processSeconds\":%.3f}%s%n",
+                    result.name(), RUNS, result.contextSeconds(), result.processSeconds(),
+                    results.indexOf(result) < results.size() - 1 ? "," : ""));
+        }
+        json.append("]\n");
+        Path output = Path.of("target", "startup-test", "results.json");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, json);
+
+        for (Result result : results) {
+            assertTrue(result.processSeconds() > 0, result.name() + " did not start");
+        }
+    }
+
+    /**
+     * Finds the application jar among the extracted files.
+     */
+    private Path findJar() throws IOException {
+        if (!Files.isDirectory(APP)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(APP)) {
+            return files.filter(file -> file.toString().endsWith(".jar")).findFirst().orElse(null);
+        }
+    }
+
+    /**
+     * Starts the jar in a new JVM, waits for the startup log line and stops the process.
+     *
+     * @return the seconds Spring reports for the context and for the whole process
+     */
+    private double[] start(Path jar, Configuration configuration, int run) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(configuration.jvmArgs());
+        command.add("-jar");
+        command.add(jar.getFileName().toString());
+        command.addAll(configuration.appArgs());
+        command.addAll(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:startup-" + run,
+                "--sales.write-behind.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.finalexam=INFO"));
+        Process process = new ProcessBuilder(command).directory(APP.toFile()).redirectErrorStream(true).start();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                Matcher started = STARTED.matcher(line);
+                if (started.find()) {
+                    return new double[]{Double.parseDouble(started.group(1)), Double.parseDouble(started.group(2))};
+                }
+            }
+            fail(configuration.name() + " exited with " + process.waitFor() + " before it started");
+            return null;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Picks the median of a few measurements.
+     */
+    private double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Services.TransactionCodeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test class for TransactionCodeGenerator.
+ */
+public class TransactionCodeGeneratorTest {
+
+    /**
+     * Tests that codes are fixed-width and sort in generation order, both as strings and as IDs.
+     */
+    @Test
+    public void testCodesAreTimeSortable() {
+        TransactionCodeGenerator generator = new TransactionCodeGenerator();
+        String previous = generator.next();
+        for (int i = 0; i < 50_000; i++) { // Spans many exhausted sequences within one millisecond
+            String code = generator.next();
+            assertEquals(TransactionCodeGenerator.CODE_LENGTH, code.length());
+            assertTrue(code.compareTo(previous) > 0, code + " should sort after " + previous);
+            previous = code;
+        }
+    }
+
+    /**
+     * Tests that concurrent threads never receive the same code.
+     */
+    @Test
+    public void testConcurrentCodesAreUnique() throws Exception {
+        TransactionCodeGenerator generator = new TransactionCodeGenerator();
+        int threads = 8;
+        int perThread = 25_000;
+        List<Future<List<String>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    List<String> codes = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        codes.add(generator.next());
+                    }
+                    return codes;
+                }));
+            }
+        }
+        Set<String> unique = new HashSet<>();
+        for (Future<List<String>> result : results) {
+            unique.addAll(result.get());
+        }
+        assertEquals(threads * perThread, unique.size());
+    }
+
+    /**
+     * Tests the base32 encoding at its bounds.
+     */
+    @Test
+    public void testEncode() {
+        assertEquals("0000000000000", TransactionCodeGenerator.encode(0));
+        assertEquals("000000000000Z", TransactionCodeGenerator.encode(31));
+        assertEquals("7ZZZZZZZZZZZZ", TransactionCodeGenerator.encode(Long.MAX_VALUE));
+    }
+}
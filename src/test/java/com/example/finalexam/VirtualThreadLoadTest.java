@@ -0,0 +1,220 @@
+package com.example.finalexam;
+
+import com.example.finalexam.Entities.Sale;
+import com.example.finalexam.Repositories.SaleRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test comparing platform-thread and virtual-thread request execution.
+ * Starts the application twice against a seeded in-memory H2 database, once per mode, and drives
+ * /services/salesReport and /services/saveSale with many concurrent clients, reporting throughput and p99 latency.
+ * Excluded from the normal build; run with {@code mvn test -Pload-test}. Tunable with the system properties
+ * load.clients, load.seconds, load.warmupSeconds and load.rows. Results are also written to target/load-test/results.json.
+ */
+@Tag("load")
+public class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 400); // Concurrent client connections
+    private static final int SECONDS = Integer.getInteger("load.seconds", 10); // Measured duration of each run
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 3); // Unmeasured warm-up
+    private static final int ROWS = Integer.getInteger("load.rows", 20_000); // Sales seeded before each run
+
+    /**
+     * The outcome of one run.
+     */
+    private record Result(String mode, String endpoint, long requests, long errors, double throughput,
+                          double p50Millis, double p99Millis) {
+    }
+
+    /**
+     * Runs both endpoints in both modes and prints the comparison.
+     */
+    @Test
+    public void compareVirtualAndPlatformThreads() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                seed(context.getBean(SaleRepository.class));
+                String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+                String mode = virtual ? "virtual" : "platform";
+                results.add(run(mode, "/services/salesReport",
+                        i -> get(base + "/services/salesReport?sort=id&dir=asc&size=20&afterId="
+                                + ThreadLocalRandom.current().nextInt(ROWS))));
+                results.add(run(mode, "/services/saveSale",
+                        i -> post(base + "/services/saveSale", "name=Load+Test&itemType=Refrigerator&salesAmount="
+                                + (1 + i % 500) + "&transactionCode=LT" + i + "&transactionDate=2024-08-01")));
+            }
+        }
+
+        StringBuilder json = new StringBuilder("[\n");
+        System.out.printf("%n%-9s %-22s %10s %8s %12s %9s %9s%n", "mode", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms");
+        for (Result result : results) {
+            System.out.printf("%-9s %-22s %10d %8d %12.1f %9.2f %9.2f%n", result.mode(), result.endpoint(), result.requests(),
+                    result.errors(), result.throughput(), result.p50Millis(), result.p99Millis());
+            json.append(String.format(Locale.ROOT,
+                    "  {\"mode\":\"%s\",\"endpoint\":\"%s\",\"clients\":%d,\"requests\":%d,\"errors\":%d," +
+                            "\"throughput\":%.1f,\"p50Millis\":%.2f,\"p99Millis\":%.2f}%s%n",
+                    result.mode(), result.endpoint(), CLIENTS, result.requests(), result.errors(), result.throughput(),
+                    result.p50Millis(), result.p99Millis(), results.indexOf(result) < results.size() - 1 ? "," : ""));
+        }
+        json.append("]\n");
+        Path output = Path.of("target", "load-test", "results.json");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, json);
+
+        for (Result result : results) {
+            assertTrue(result.requests() > 0, result.mode() + " " + result.endpoint() + " served no requests");
+        }
+    }
+
+    /**
+     * Starts the application on a random port with its own in-memory database.
+     */
+    private ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(FinalExamApplication.class)
+                .profiles(virtual ? new String[]{"virtual"} : new String[0])
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + (virtual ? "virtual" : "platform"),
+                        "spring.devtools.restart.enabled=false",
+                        "spring.thymeleaf.cache=true",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    /**
+     * Seeds the database with deterministic sales.
+     */
+    private void seed(SaleRepository saleRepository) {
+        Random random = new Random(42);
+        String[] names = {"John Doe", "Jessica Lam", "Ann Lee", "Raj Patel", "Maria Garcia"};
+        String[] itemTypes = {"Refrigerator", "Music System", "Washing Machine", "Television"};
+        List<Sale> sales = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Sale sale = new Sale();
+            sale.setName(names[random.nextInt(names.length)]);
+            sale.setItemType(itemTypes[random.nextInt(itemTypes.length)]);
+            sale.setSalesAmountCents(100 + random.nextInt(200_000));
+            sale.setTransactionCode("SEED" + i);
+            sale.setTransactionDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)));
+            sales.add(sale);
+        }
+        saleRepository.saveAll(sales);
+    }
+
+    /**
+     * Drives one endpoint with {@link #CLIENTS} concurrent clients, each on its own virtual thread,
+     * and measures every request after the warm-up.
+     */
+    private Result run(String mode, String endpoint, LongFunction<HttpRequest> requests) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+        long end = measureFrom + Duration.ofSeconds(SECONDS).toNanos();
+
+        List<Future<long[]>> clients = new ArrayList<>(CLIENTS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientId = c;
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long errors = 0;
+                    for (long i = clientId; System.nanoTime() < end; i += CLIENTS) {
+                        long sent = System.nanoTime();
+                        boolean ok;
+                        try {
+                            int status = client.send(requests.apply(i), HttpResponse.BodyHandlers.discarding()).statusCode();
+                            ok = status < 400;
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        if (sent < measureFrom) {
+                            continue; // Warm-up request
+                        }
+                        if (!ok) {
+                            errors++;
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    long[] measured = Arrays.copyOf(latencies, count + 1);
+                    measured[count] = errors; // Last slot carries the error count
+                    return measured;
+                }));
+            }
+        }
+
+        long[] all = new long[0];
+        long errors = 0;
+        for (Future<long[]> future : clients) {
+            long[] measured = future.get();
+            errors += measured[measured.length - 1];
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + measured.length - 1);
+            System.arraycopy(measured, 0, all, offset, measured.length - 1);
+        }
+        Arrays.sort(all);
+        return new Result(mode, endpoint, all.length, errors, all.length / (double) SECONDS,
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99));
+    }
+
+    /**
+     * Picks the nearest-rank percentile of sorted latencies, in milliseconds.
+     */
+    private double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.max(1, Math.ceil(p * sorted.length));
+        return sorted[rank - 1] / 1_000_000.0;
+    }
+
+    /**
+     * Builds a GET request.
+     */
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    /**
+     * Builds a form POST request.
+     */
+    private static HttpRequest post(String url, String form) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build();
+    }
+}